@@ -0,0 +1,379 @@
+package com.capstone.uniculture.loadtest;
+
+import com.capstone.uniculture.UnicultureApplication;
+import com.capstone.uniculture.dto.Message.CreateGroupChatRoomDTO;
+import com.capstone.uniculture.entity.Member.Member;
+import com.capstone.uniculture.jwt.TokenProvider;
+import com.capstone.uniculture.repository.MemberRepository;
+import com.capstone.uniculture.service.ChatRoomService;
+import com.capstone.uniculture.service.ChatSessionMonitor;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 채팅 부하 테스트 (./gradlew loadTest -Ploadtest.clients=2000 ...)
+ * 메모리 H2 로 앱을 띄우고, 가짜 회원/채팅방을 만든 뒤 clients 개의 STOMP 클라이언트가 /ws 로 접속해서
+ * 각자 rate 건/초 로 /pub/chat/{roomId} 에 메시지를 보낸다. 모든 클라이언트는 자기 방의 /sub/chat/room/{roomId} 를 구독
+ * - 지연시간 : 메시지 본문에 보낸 시각(nanoTime)을 넣고, 방 토픽으로 받은 시각과의 차이 (같은 JVM 이라 시계가 같음)
+ * - 처리량 : 측정 구간 동안 보낸 메시지 / 받은 프레임 수, 받지 못한 프레임 수
+ * - 힙/GC : JVM 전체 기준 (클라이언트도 같은 JVM 이므로 서버만의 메모리는 chat.websocket.sessions.estimated.bytes 참고)
+ * max-p99-ms 를 주면 p99 가 넘거나 유실/오류가 있을때 1 로 종료하므로 CI 에서 회귀 검사로 쓸 수 있다
+ * 클라이언트 수만큼 소켓이 양쪽(클라이언트/서버)에 열리므로 ulimit -n 은 clients * 2 보다 크게
+ */
+public class ChatLoadTest {
+
+  private final int clients = intProperty("loadtest.clients", 1000);
+  private final int roomSize = Math.max(2, intProperty("loadtest.room-size", 2));
+  private final double rate = doubleProperty("loadtest.rate", 0.5);
+  private final int warmupSeconds = intProperty("loadtest.warmup-seconds", 10);
+  private final int durationSeconds = intProperty("loadtest.duration-seconds", 60);
+  private final int messageBytes = intProperty("loadtest.message-bytes", 64);
+  private final int connectConcurrency = intProperty("loadtest.connect-concurrency", 200);
+  private final int senderThreads = intProperty("loadtest.sender-threads", 8);
+  private final long maxP99Ms = intProperty("loadtest.max-p99-ms", 0);
+  private final String reportFile = System.getProperty("loadtest.report-file", "build/reports/loadtest/chat-load-test.txt");
+
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final AtomicLong sent = new AtomicLong();
+  private final AtomicLong expected = new AtomicLong();
+  private final AtomicLong received = new AtomicLong();
+  private final AtomicLong errors = new AtomicLong();
+  private final AtomicLong peakHeapUsed = new AtomicLong();
+  // 이 시각 이후에 보낸 메시지만 측정 (워밍업 제외)
+  private volatile long measureFromNanos = Long.MAX_VALUE;
+
+  public static void main(String[] args) throws Exception {
+    System.exit(new ChatLoadTest().run(args));
+  }
+
+  private int run(String[] args) throws Exception {
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(UnicultureApplication.class)
+            .profiles("loadtest")
+            .run(args);
+    try {
+      int port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+
+      // 1. 회원, 채팅방, 토큰 준비
+      List<Member> members = createMembers(context.getBean(MemberRepository.class));
+      // 클라이언트 i 가 들어간 채팅방 id, 그 방의 인원 (방 토픽으로 받는 프레임 수)
+      List<Long> roomIds = new ArrayList<>(clients);
+      List<Integer> fanOuts = new ArrayList<>(clients);
+      createRooms(context.getBean(ChatRoomService.class), members, roomIds, fanOuts);
+      TokenProvider tokenProvider = context.getBean(TokenProvider.class);
+
+      // 2. 접속 + 구독
+      WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+      stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+      stompClient.setInboundMessageSizeLimit(1024 * 1024);
+      List<StompSession> sessions = connect(stompClient, "ws://localhost:" + port + "/ws", members, roomIds, tokenProvider);
+      Thread.sleep(1000); // 구독이 브로커에 등록될 때까지
+
+      // 3. 전송 (워밍업 후 측정 구간)
+      ScheduledExecutorService monitor = Executors.newSingleThreadScheduledExecutor();
+      MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+      monitor.scheduleAtFixedRate(() -> peakHeapUsed.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max),
+              0, 200, TimeUnit.MILLISECONDS);
+
+      ScheduledExecutorService senders = Executors.newScheduledThreadPool(senderThreads);
+      long periodMicros = Math.max(1, (long) (1_000_000 / rate));
+      for (int i = 0; i < sessions.size(); i++) {
+        StompSession session = sessions.get(i);
+        Long roomId = roomIds.get(i);
+        int fanOut = fanOuts.get(i);
+        String clientPrefix = "lt-" + i + "-";
+        AtomicLong sequence = new AtomicLong();
+        senders.scheduleAtFixedRate(() -> send(session, roomId, fanOut, clientPrefix + sequence.incrementAndGet()),
+                ThreadLocalRandom.current().nextLong(periodMicros), periodMicros, TimeUnit.MICROSECONDS);
+      }
+
+      Thread.sleep(warmupSeconds * 1000L);
+      GcSnapshot gcBefore = GcSnapshot.take();
+      long heapBefore = memory.getHeapMemoryUsage().getUsed();
+      peakHeapUsed.set(heapBefore);
+      long start = System.nanoTime();
+      measureFromNanos = start;
+
+      Thread.sleep(durationSeconds * 1000L);
+      senders.shutdownNow();
+      long elapsedNanos = System.nanoTime() - start;
+      senders.awaitTermination(5, TimeUnit.SECONDS);
+      waitForDeliveries(expected.get());
+      GcSnapshot gcAfter = GcSnapshot.take();
+      monitor.shutdownNow();
+
+      // 4. 결과
+      String report = report(elapsedNanos, expected.get(), heapBefore, memory.getHeapMemoryUsage().getUsed(),
+              gcAfter.minus(gcBefore), context);
+      System.out.println(report);
+      writeReport(report);
+      // 연결을 끊을때 생기는 전송 오류는 빼고 판단
+      boolean failed = maxP99Ms > 0 && (latency.getPercentile(99) / 1000 > maxP99Ms || received.get() < expected.get() || errors.get() > 0);
+
+      sessions.forEach(session -> {
+        if(session.isConnected()) session.disconnect();
+      });
+      stompClient.stop();
+      return failed ? 1 : 0;
+    } finally {
+      context.close();
+    }
+  }
+
+  private List<Member> createMembers(MemberRepository memberRepository) {
+    List<Member> members = new ArrayList<>(clients);
+    for (int from = 0; from < clients; from += 500) {
+      List<Member> chunk = new ArrayList<>();
+      for (int i = from; i < Math.min(clients, from + 500); i++) {
+        chunk.add(Member.builder().email("loadtest" + i + "@uniculture.test").nickname("lt" + i).password("loadtest").build());
+      }
+      members.addAll(memberRepository.saveAll(chunk));
+    }
+    return members;
+  }
+
+  // 앞에서부터 room-size 명씩 한 방 (2 명이면 1:1 채팅방, 더 많으면 단체 채팅방). 남는 인원은 마지막 방에 합류
+  private void createRooms(ChatRoomService chatRoomService, List<Member> members, List<Long> roomIds, List<Integer> fanOuts) {
+    int rooms = Math.max(1, members.size() / roomSize);
+    for (int r = 0; r < rooms; r++) {
+      List<Member> roomMembers = members.subList(r * roomSize, r == rooms - 1 ? members.size() : (r + 1) * roomSize);
+      Long roomId;
+      if(roomMembers.size() == 2){
+        roomId = chatRoomService.checkAndCreate(roomMembers.get(0).getId(), roomMembers.get(1).getId()).getChatRoomId();
+      } else {
+        CreateGroupChatRoomDTO dto = new CreateGroupChatRoomDTO();
+        dto.setName("loadtest-" + r);
+        dto.setMemberIds(roomMembers.stream().map(Member::getId).toList());
+        roomId = chatRoomService.createGroupChatRoom(roomMembers.get(0).getId(), dto).getChatRoomId();
+      }
+      for (int i = 0; i < roomMembers.size(); i++) {
+        roomIds.add(roomId);
+        fanOuts.add(roomMembers.size());
+      }
+    }
+  }
+
+  private List<StompSession> connect(WebSocketStompClient stompClient, String url, List<Member> members,
+                                     List<Long> roomIds, TokenProvider tokenProvider) throws Exception {
+    Semaphore inFlight = new Semaphore(connectConcurrency);
+    List<CompletableFuture<StompSession>> futures = new ArrayList<>(members.size());
+    long connectStart = System.nanoTime();
+    for (int i = 0; i < members.size(); i++) {
+      StompHeaders connectHeaders = new StompHeaders();
+      connectHeaders.add("Authorization", token(tokenProvider, members.get(i)));
+      connectHeaders.setHeartbeat(new long[]{0, 0});
+      Long roomId = roomIds.get(i);
+
+      inFlight.acquire();
+      CompletableFuture<StompSession> future = stompClient
+              .connectAsync(url, (WebSocketHttpHeaders) null, connectHeaders, new ClientHandler())
+              .whenComplete((session, ex) -> inFlight.release())
+              .thenApply(session -> {
+                session.subscribe("/sub/chat/room/" + roomId, new RoomFrameHandler());
+                return session;
+              });
+      futures.add(future);
+    }
+    CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.MINUTES);
+    System.out.printf("[loadtest] %d 개 세션 접속 (%d ms)%n", futures.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStart));
+    return futures.stream().map(CompletableFuture::join).toList();
+  }
+
+  private static String token(TokenProvider tokenProvider, Member member) {
+    return tokenProvider.generateTokenDto(new UsernamePasswordAuthenticationToken(String.valueOf(member.getId()), "",
+            List.of(new SimpleGrantedAuthority("ROLE_USER")))).getAccessToken();
+  }
+
+  // 본문 = "보낸 nanoTime:" + 패딩 (message-bytes 길이)
+  private void send(StompSession session, Long roomId, int fanOut, String clientMessageId) {
+    long now = System.nanoTime();
+    StringBuilder message = new StringBuilder(messageBytes).append(now).append(':');
+    while (message.length() < messageBytes) message.append('x');
+    try {
+      session.send("/pub/chat/" + roomId, Map.of("type", "TALK", "roomId", roomId,
+              "message", message.toString(), "clientMessageId", clientMessageId));
+      if(now >= measureFromNanos){
+        sent.incrementAndGet();
+        expected.addAndGet(fanOut);
+      }
+    } catch (RuntimeException e) {
+      errors.incrementAndGet();
+    }
+  }
+
+  // 보낸 메시지마다 방 인원 만큼 받을 때까지 (또는 10 초 동안 더 안 늘어날 때까지) 대기
+  private void waitForDeliveries(long expected) throws InterruptedException {
+    long last = -1, stableSince = System.currentTimeMillis();
+    while (received.get() < expected && System.currentTimeMillis() - stableSince < 10_000) {
+      long now = received.get();
+      if(now != last){
+        last = now;
+        stableSince = System.currentTimeMillis();
+      }
+      Thread.sleep(100);
+    }
+  }
+
+  private String report(long elapsedNanos, long expected, long heapBefore, long heapAfter, GcSnapshot gc,
+                        ConfigurableApplicationContext context) {
+    double seconds = elapsedNanos / 1_000_000_000.0;
+    ChatSessionMonitor.Summary sessions = context.getBean(ChatSessionMonitor.class).getSummary();
+    StringBuilder report = new StringBuilder();
+    report.append("==== 채팅 부하 테스트 ====\n");
+    report.append(String.format("clients=%d room-size=%d rate=%.2f/s per client, warmup=%ds, duration=%ds, message-bytes=%d%n",
+            clients, roomSize, rate, warmupSeconds, durationSeconds, messageBytes));
+    report.append(String.format("보낸 메시지   : %d (%.1f msg/s)%n", sent.get(), sent.get() / seconds));
+    report.append(String.format("받은 프레임   : %d / %d (%.1f frame/s, 유실 %d)%n",
+            received.get(), expected, received.get() / seconds, Math.max(0, expected - received.get())));
+    report.append(String.format("클라이언트 오류 : %d%n", errors.get()));
+    report.append(String.format("지연시간(ms)  : mean=%.2f p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+            latency.getMean() / 1000, latency.getPercentile(50) / 1000.0, latency.getPercentile(90) / 1000.0,
+            latency.getPercentile(99) / 1000.0, latency.getPercentile(99.9) / 1000.0, latency.getMax() / 1000.0));
+    report.append(String.format("힙(MB)        : 시작=%d 종료=%d 최대=%d (JVM 전체, 클라이언트 포함)%n",
+            heapBefore >> 20, heapAfter >> 20, peakHeapUsed.get() >> 20));
+    report.append(String.format("GC            : %d 회, %d ms (%.2f%%)%n",
+            gc.count, gc.timeMs, gc.timeMs / (seconds * 10)));
+    gc.byCollector.forEach(line -> report.append("  ").append(line).append('\n'));
+    report.append(String.format("서버 세션     : %d 개, 구독 %d, 전송 대기 %d 프레임, 세션당 추정 %d KB%n",
+            sessions.getSessions(), sessions.getSubscriptions(), sessions.getPendingFrames(),
+            sessions.getEstimatedBytesPerSession() >> 10));
+    report.append("서버 메트릭 :\n");
+    context.getBean(MeterRegistry.class).getMeters().stream()
+            .filter(meter -> meter.getId().getName().startsWith("chat."))
+            .sorted(Comparator.comparing((Meter meter) -> meter.getId().getName()))
+            .forEach(meter -> report.append("  ").append(meter.getId().getName())
+                    .append(meter.getId().getTags().isEmpty() ? "" : meter.getId().getTags())
+                    .append(" = ").append(meter.measure().iterator().next().getValue()).append('\n'));
+    return report.toString();
+  }
+
+  private void writeReport(String report) {
+    try {
+      Path path = Path.of(reportFile);
+      if(path.getParent() != null) Files.createDirectories(path.getParent());
+      Files.writeString(path, report, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      System.err.println("[loadtest] 결과 파일 저장 실패 : " + e.getMessage());
+    }
+  }
+
+  private static int intProperty(String key, int defaultValue) {
+    return Integer.parseInt(System.getProperty(key, String.valueOf(defaultValue)));
+  }
+
+  private static double doubleProperty(String key, double defaultValue) {
+    return Double.parseDouble(System.getProperty(key, String.valueOf(defaultValue)));
+  }
+
+  private class ClientHandler extends StompSessionHandlerAdapter {
+    @Override
+    public void handleException(StompSession session, StompCommand command, StompHeaders headers, byte[] payload, Throwable exception) {
+      errors.incrementAndGet();
+    }
+
+    @Override
+    public void handleTransportError(StompSession session, Throwable exception) {
+      errors.incrementAndGet();
+    }
+
+    // 서버가 보낸 ERROR 프레임
+    @Override
+    public void handleFrame(StompHeaders headers, Object payload) {
+      errors.incrementAndGet();
+    }
+  }
+
+  private class RoomFrameHandler implements StompFrameHandler {
+    @Override
+    public Type getPayloadType(StompHeaders headers) {
+      return Map.class;
+    }
+
+    @Override
+    public void handleFrame(StompHeaders headers, Object payload) {
+      long now = System.nanoTime();
+      Object message = ((Map<?, ?>) payload).get("message");
+      if(!(message instanceof String text)) return;
+      int separator = text.indexOf(':');
+      if(separator <= 0) return;
+      long sentAt = Long.parseLong(text.substring(0, separator));
+      if(sentAt < measureFromNanos) return;
+      received.incrementAndGet();
+      latency.record(TimeUnit.NANOSECONDS.toMicros(now - sentAt));
+    }
+  }
+
+  // GC 횟수/시간 누적값 (측정 구간 전후 차이로 사용)
+  private static class GcSnapshot {
+    private final long count;
+    private final long timeMs;
+    private final List<String> byCollector;
+    private final List<GarbageCollectorMXBean> beans;
+    private final long[] counts;
+    private final long[] times;
+
+    private GcSnapshot(List<GarbageCollectorMXBean> beans, long[] counts, long[] times, long count, long timeMs, List<String> byCollector) {
+      this.beans = beans;
+      this.counts = counts;
+      this.times = times;
+      this.count = count;
+      this.timeMs = timeMs;
+      this.byCollector = byCollector;
+    }
+
+    private static GcSnapshot take() {
+      List<GarbageCollectorMXBean> beans = ManagementFactory.getGarbageCollectorMXBeans();
+      long[] counts = new long[beans.size()], times = new long[beans.size()];
+      for (int i = 0; i < beans.size(); i++) {
+        counts[i] = Math.max(0, beans.get(i).getCollectionCount());
+        times[i] = Math.max(0, beans.get(i).getCollectionTime());
+      }
+      return new GcSnapshot(beans, counts, times, 0, 0, List.of());
+    }
+
+    private GcSnapshot minus(GcSnapshot before) {
+      long count = 0, timeMs = 0;
+      List<String> lines = new ArrayList<>();
+      for (int i = 0; i < beans.size(); i++) {
+        long c = counts[i] - before.counts[i], t = times[i] - before.times[i];
+        count += c;
+        timeMs += t;
+        lines.add(String.format("%s : %d 회, %d ms", beans.get(i).getName(), c, t));
+      }
+      return new GcSnapshot(beans, counts, times, count, timeMs, lines);
+    }
+  }
+}
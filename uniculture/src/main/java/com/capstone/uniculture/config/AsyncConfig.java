@@ -0,0 +1,52 @@
+package com.capstone.uniculture.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * @Async 작업용 스레드풀
+ * 채팅 자동 번역은 외부 API(DeepL) 호출이라 느리므로 STOMP 채널 스레드가 아닌 별도 풀에서 처리한다
+ */
+@Slf4j
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+  @Value("${chat.translate.executor.core-pool-size:4}")
+  private int translateCorePoolSize;
+
+  @Value("${chat.translate.executor.max-pool-size:8}")
+  private int translateMaxPoolSize;
+
+  @Value("${chat.translate.executor.queue-capacity:1000}")
+  private int translateQueueCapacity;
+
+  /**
+   * 채팅 자동 번역 스레드풀
+   * 번역은 원문이 이미 전송된 뒤에 따라가는 부가 기능이므로, 큐가 가득 차면 호출한 스레드를 막지 않고 버린다
+   * (chat.translate.executor.rejected 메트릭)
+   */
+  @Bean
+  public ThreadPoolTaskExecutor chatTranslationExecutor(MeterRegistry meterRegistry) {
+    Counter rejected = Counter.builder("chat.translate.executor.rejected")
+            .description("큐가 가득 차서 버린 자동 번역 작업 수")
+            .register(meterRegistry);
+
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setThreadNamePrefix("chat-translate-");
+    executor.setCorePoolSize(translateCorePoolSize);
+    executor.setMaxPoolSize(Math.max(translateCorePoolSize, translateMaxPoolSize));
+    executor.setQueueCapacity(translateQueueCapacity);
+    executor.setRejectedExecutionHandler((task, pool) -> {
+      rejected.increment();
+      log.warn("자동 번역 큐가 가득 차서 번역을 건너뜁니다.");
+    });
+    return executor;
+  }
+}
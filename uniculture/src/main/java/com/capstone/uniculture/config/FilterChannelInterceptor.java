@@ -35,8 +35,7 @@ public class FilterChannelInterceptor implements ChannelInterceptor {
 
             if (StringUtils.hasText(token) && tokenProvider.validateToken(token)) { // 유효한 토큰이라면
                 Authentication authentication = tokenProvider.getAuthentication(token); // 인증정보(Authentication)을 꺼내서
-                long userId = Long.parseLong(authentication.getName());
-                headerAccessor.addNativeHeader("User", String.valueOf(userId));
+                headerAccessor.setUser(authentication); // 세션의 Principal 로 등록 (이후 이벤트/메시지에서 getUser 로 꺼냄)
             }
         }
         return message;
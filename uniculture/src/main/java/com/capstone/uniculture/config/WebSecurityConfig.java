@@ -47,6 +47,8 @@ public class WebSecurityConfig {
                 .and()
                 .authorizeRequests()
                 .requestMatchers("/api/auth/**").authenticated()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN") // 캐시 적중률 등 운영 지표
                 .anyRequest().permitAll()
 
                 .and()
@@ -1,14 +1,35 @@
 package com.capstone.uniculture.config;
 
 import com.capstone.uniculture.jwt.JwtHandshakeInterceptor;
+import com.capstone.uniculture.service.ChatSessionMonitor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.util.StringUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Slf4j
 @Configuration
@@ -18,11 +39,134 @@ public class WebSockConfig implements WebSocketMessageBrokerConfigurer {
 
 
   private final FilterChannelInterceptor filterChannelInterceptor;
+  private final MeterRegistry meterRegistry;
+  private final ChatSessionMonitor chatSessionMonitor;
+
+  // simple : 서버 메모리 안의 브로커 (서버 1대, 기본값) / relay : 외부 STOMP 브로커로 중계 (서버 여러대)
+  @Value("${chat.broker.mode:simple}")
+  private String brokerMode;
+
+  @Value("${chat.broker.relay.host:localhost}")
+  private String relayHost;
+
+  @Value("${chat.broker.relay.port:61613}")
+  private int relayPort;
+
+  @Value("${chat.broker.relay.login:guest}")
+  private String relayLogin;
+
+  @Value("${chat.broker.relay.passcode:guest}")
+  private String relayPasscode;
+
+  @Value("${chat.broker.relay.virtual-host:}")
+  private String relayVirtualHost;
+
+  // 클라이언트 -> 서버 메시지 처리 스레드 (@MessageMapping 핸들러가 JPA 로 블로킹되므로 넉넉하게)
+  @Value("${chat.websocket.inbound.core-pool-size:8}")
+  private int inboundCorePoolSize;
+
+  @Value("${chat.websocket.inbound.max-pool-size:32}")
+  private int inboundMaxPoolSize;
+
+  @Value("${chat.websocket.inbound.queue-capacity:1000}")
+  private int inboundQueueCapacity;
+
+  // 서버 -> 클라이언트 전송 스레드
+  @Value("${chat.websocket.outbound.core-pool-size:8}")
+  private int outboundCorePoolSize;
+
+  @Value("${chat.websocket.outbound.max-pool-size:16}")
+  private int outboundMaxPoolSize;
+
+  @Value("${chat.websocket.outbound.queue-capacity:5000}")
+  private int outboundQueueCapacity;
+
+  // 브로커 채널 스레드. 0 이면 보낸 스레드에서 바로 브로커로 전달 (기본값)
+  @Value("${chat.websocket.broker.core-pool-size:0}")
+  private int brokerCorePoolSize;
+
+  @Value("${chat.websocket.broker.max-pool-size:8}")
+  private int brokerMaxPoolSize;
+
+  @Value("${chat.websocket.broker.queue-capacity:5000}")
+  private int brokerQueueCapacity;
+
+  // 세션 하나에 대한 전송이 이 시간/버퍼 크기를 넘기면 느린 구독자로 보고 연결을 끊는다
+  @Value("${chat.websocket.send-time-limit-ms:5000}")
+  private int sendTimeLimitMs;
+
+  @Value("${chat.websocket.send-buffer-size-limit:262144}")
+  private int sendBufferSizeLimit;
+
+  @Value("${chat.websocket.message-size-limit:65536}")
+  private int messageSizeLimit;
+
+  // STOMP heartbeat 간격 (서버 -> 클라이언트 전송, 클라이언트 -> 서버 수신 기대값). 0 이면 사용 안함
+  @Value("${chat.websocket.heartbeat-ms:10000}")
+  private long heartbeatMs;
+
+  // @Scheduled 작업 스케줄러 스레드 수
+  @Value("${spring.task.scheduling.pool.size:4}")
+  private int schedulerPoolSize;
+
+  // STOMP heartbeat 전용 스케줄러 스레드 수
+  @Value("${chat.websocket.heartbeat-pool-size:1}")
+  private int heartbeatPoolSize;
+
+  /**
+   * @Scheduled 작업용 스케줄러 (채팅 flush, 보관, 유휴 세션 정리 등)
+   * 이름이 taskScheduler 여야 @Scheduled 가 messageBrokerTaskScheduler 대신 이 스케줄러를 쓴다
+   */
+  @Bean
+  public ThreadPoolTaskScheduler taskScheduler() {
+    ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(schedulerPoolSize);
+    scheduler.setThreadNamePrefix("scheduling-");
+    return scheduler;
+  }
+
+  /**
+   * 브로커 heartbeat 전용 스케줄러
+   * @Scheduled 작업(보관, 랭킹 재계산 등)이 오래 걸려도 heartbeat 가 밀려서 정상 세션이 끊기지 않도록 따로 둔다
+   */
+  @Bean
+  public ThreadPoolTaskScheduler brokerHeartbeatScheduler() {
+    ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(heartbeatPoolSize);
+    scheduler.setThreadNamePrefix("stomp-heartbeat-");
+    return scheduler;
+  }
 
   @Override
   public void configureMessageBroker(MessageBrokerRegistry registry) {
-    registry.enableSimpleBroker("/sub"); // 구독 url
+    if("relay".equalsIgnoreCase(brokerMode)){
+      // 외부 브로커가 구독을 관리하므로 어느 서버에서 convertAndSend 해도 모든 서버의 구독자에게 전달된다
+      log.info("STOMP broker relay 모드 : {}:{}", relayHost, relayPort);
+      StompBrokerRelayRegistration relay = registry.enableStompBrokerRelay("/sub")
+              .setRelayHost(relayHost)
+              .setRelayPort(relayPort)
+              .setClientLogin(relayLogin)
+              .setClientPasscode(relayPasscode)
+              .setSystemLogin(relayLogin)
+              .setSystemPasscode(relayPasscode);
+      if(StringUtils.hasText(relayVirtualHost)) relay.setVirtualHost(relayVirtualHost);
+      // 클라이언트 heartbeat 는 외부 브로커와 협상되고, 여기서는 서버 - 브로커 연결의 heartbeat 만 설정
+      relay.setSystemHeartbeatSendInterval(heartbeatMs)
+              .setSystemHeartbeatReceiveInterval(heartbeatMs)
+              .setTaskScheduler(brokerHeartbeatScheduler());
+    }
+    else{
+      // heartbeat 를 협상한 클라이언트가 간격 안에 아무것도 보내지 않으면 simple broker 가 세션을 끊는다
+      registry.enableSimpleBroker("/sub") // 구독 url
+              .setHeartbeatValue(new long[]{heartbeatMs, heartbeatMs})
+              .setTaskScheduler(brokerHeartbeatScheduler());
+    }
     registry.setApplicationDestinationPrefixes("/pub"); // prefix 정의
+
+    if(brokerCorePoolSize > 0){
+      registry.configureBrokerChannel().taskExecutor(
+              channelExecutor("broker", brokerCorePoolSize, brokerMaxPoolSize, brokerQueueCapacity));
+    }
   }
 
   @Override
@@ -37,7 +181,72 @@ public class WebSockConfig implements WebSocketMessageBrokerConfigurer {
 
   @Override
   public void configureClientInboundChannel(ChannelRegistration registration) {
-    registration.interceptors(filterChannelInterceptor);
+    registration.interceptors(filterChannelInterceptor, chatSessionMonitor.inboundInterceptor());
+    registration.taskExecutor(channelExecutor("inbound", inboundCorePoolSize, inboundMaxPoolSize, inboundQueueCapacity));
+  }
+
+  @Override
+  public void configureClientOutboundChannel(ChannelRegistration registration) {
+    registration.interceptors(chatSessionMonitor.outboundInterceptor());
+    registration.taskExecutor(channelExecutor("outbound", outboundCorePoolSize, outboundMaxPoolSize, outboundQueueCapacity));
+  }
+
+  @Override
+  public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+    registration.setSendTimeLimit(sendTimeLimitMs)
+            .setSendBufferSizeLimit(sendBufferSizeLimit)
+            .setMessageSizeLimit(messageSizeLimit);
+
+    // 유휴 세션 정리, 세션별 메모리 추정을 위해 WebSocket 세션 열림/닫힘을 ChatSessionMonitor 에 알림
+    registration.addDecoratorFactory(handler -> new WebSocketHandlerDecorator(handler) {
+      @Override
+      public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        chatSessionMonitor.opened(session);
+        super.afterConnectionEstablished(session);
+      }
+
+      @Override
+      public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        chatSessionMonitor.closed(session.getId());
+        super.afterConnectionClosed(session, closeStatus);
+      }
+    });
+  }
+
+  /**
+   * 채널 스레드풀 (큐 크기 제한)
+   * 큐가 가득 차면 메시지를 넘긴 스레드가 직접 처리해서 보내는 쪽 속도를 늦춘다 (back-pressure)
+   * 큐 길이/활성 스레드 수는 actuator 의 executor.* 메트릭으로 확인 (name = clientInboundChannelExecutor 등)
+   */
+  private ThreadPoolTaskExecutor channelExecutor(String channel, int corePoolSize, int maxPoolSize, int queueCapacity) {
+    Counter rejected = Counter.builder("chat.websocket.executor.rejected")
+            .description("큐가 가득 차서 호출한 스레드에서 직접 처리한 작업 수")
+            .tag("channel", channel)
+            .register(meterRegistry);
+
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setThreadNamePrefix("ws-" + channel + "-");
+    executor.setCorePoolSize(corePoolSize);
+    executor.setMaxPoolSize(Math.max(corePoolSize, maxPoolSize));
+    executor.setQueueCapacity(queueCapacity);
+    executor.setRejectedExecutionHandler((task, pool) -> {
+      rejected.increment();
+      new ThreadPoolExecutor.CallerRunsPolicy().rejectedExecution(task, pool);
+    });
+    return executor;
+  }
+
+  // 전송 제한(send-time-limit, send-buffer-size-limit)을 넘겨서 끊긴 세션 수, 현재 WebSocket 세션 수
+  @Bean
+  public MeterBinder webSocketSessionMetrics(@Qualifier("subProtocolWebSocketHandler") WebSocketHandler webSocketHandler) {
+    return registry -> {
+      if(!(webSocketHandler instanceof SubProtocolWebSocketHandler handler)) return;
+      FunctionCounter.builder("chat.websocket.sessions.dropped", handler, h -> h.getStats().getLimitExceededSessions())
+              .description("느린 구독자로 판단되어 끊긴 세션 수")
+              .register(registry);
+      Gauge.builder("chat.websocket.sessions", handler, h -> h.getStats().getWebSocketSessions())
+              .register(registry);
+    };
   }
 
 }
@@ -1,14 +1,24 @@
 package com.capstone.uniculture.controller;
 
+import com.capstone.uniculture.dto.Message.ChatHistoryResponseDto;
 import com.capstone.uniculture.dto.Message.ChatMessageDTO;
+import com.capstone.uniculture.dto.Message.ChatSendResultDto;
 import com.capstone.uniculture.dto.Message.MessageResponseDto;
+import com.capstone.uniculture.dto.Message.MessageSearchResponseDto;
+import com.capstone.uniculture.dto.Message.ReadReceiptDto;
 import com.capstone.uniculture.entity.Message.ChatMessage;
 import com.capstone.uniculture.jwt.TokenProvider;
+import com.capstone.uniculture.service.ChatBroadcaster;
+import com.capstone.uniculture.service.ChatPresenceService;
 import com.capstone.uniculture.service.ChatService;
+import com.capstone.uniculture.service.ChatSessionRegistry;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.Header;
@@ -40,13 +50,17 @@ import java.util.*;
 public class ChatController {
   private final ChatService chatService;
   private final SimpMessageSendingOperations messagingTemplate;   //브로커 통해서 메시지 전달
-  private static final Map<String, Long> sessions = new HashMap<>();
+  private final ChatSessionRegistry chatSessionRegistry;
+  private final ChatBroadcaster chatBroadcaster;
+  private final ChatPresenceService chatPresenceService;
 
   /**
    * 클라이언트 메시지 전송 WebSocket
    * @Request : PathVariable(전송하는 방의 번호), ChatMessageDTO(메시지 타입, 멤버이름, 채팅방 번호, 내용)
-   * @Reponse : void(하지만, convertAndSend 로 사실상 Message 전송)
-   * 로직 : ChatMessageRepository 에 받은 메시지 저장후, 이 채팅방을 구독한 전체에게 Send
+   * @Reponse : void(하지만, ChatBroadcaster 로 사실상 Message 전송)
+   * 로직 : ChatMessageRepository 에 받은 메시지 저장후, 이 채팅방을 구독한 전체와 참여자 전원에게 Send
+   * clientMessageId 를 같이 보내면 재연결 후 같은 메시지를 다시 보내도 한번만 저장/전송된다
+   * 저장/참여자 확인/전송 모두 경로의 roomId 기준 (payload 의 roomId 가 다르면 거부)
    */
   @MessageMapping("/chat/{roomId}")
   public void message(//WebSocketSession session,
@@ -54,48 +68,108 @@ public class ChatController {
                       @Payload ChatMessageDTO message,
                       SimpMessageHeaderAccessor accessor) {
 
-    Long writerId = sessions.get(accessor.getSessionId());
-    List<Object> objects = chatService.sendMessage2(writerId, message);
-    MessageResponseDto message1 = (MessageResponseDto) objects.get(0);
-    ChatMessageDTO message2 = (ChatMessageDTO) objects.get(1);
+    Long writerId = findSessionMember(accessor);
+    if(message.getRoomId() != null && !message.getRoomId().equals(roomId)){
+      throw new IllegalArgumentException("채팅방 번호가 일치하지 않습니다.");
+    }
+    message.setRoomId(roomId);
+    ChatSendResultDto result = chatService.sendMessage2(writerId, message);
+    if(result.isDuplicate()) return; // 재전송된 메시지 (이미 저장/전송됨)
 
-    // ChatMessageDTO message2 = chatService.sendMessage2(writerId, message);//데이터베이스 먼저 저장
+    // 방 토픽에는 MessageResponseDto, 참여자 전원(보낸 사람 포함)의 유저 토픽에는 ChatMessageDTO (각각 한번만 직렬화)
+    String[] userDestinations = result.getMemberIds().stream()
+            .map(memberId -> "/sub/chat/user/" + memberId)
+            .toArray(String[]::new);
+    chatBroadcaster.broadcast(
+            ChatBroadcaster.delivery(result.getRoomMessage(), "/sub/chat/room/" + roomId),
+            ChatBroadcaster.delivery(result.getUserMessage(), userDestinations));
+    chatPresenceService.stopTyping(roomId, writerId);
+  }
 
-    System.out.println("보낼방의 아이디는? = " + roomId);
-    messagingTemplate.convertAndSend("/sub/chat/room/" + roomId, message1);  //roomId로 메시지 전송
-    System.out.println("보낼쪽의 아이디는? = " + message2.getReceiver());
-    messagingTemplate.convertAndSend("/sub/chat/user/" + message2.getReceiver(), message2);  //roomId로 메시지 전송
-    messagingTemplate.convertAndSend("/sub/chat/user/" + writerId, message2);  //roomId로 메시지 전송
+  /**
+   * 입력중 표시 WebSocket (DB 저장 X)
+   * @Request : PathVariable(채팅방 번호), payload 없음
+   * 로직 : 키 입력마다 보내도 되고, 서버가 모아서 /sub/chat/room/{roomId}/typing 으로 일정 간격마다 한번만 전송
+   */
+  @MessageMapping("/chat/{roomId}/typing")
+  public void typing(@DestinationVariable Long roomId,
+                     SimpMessageHeaderAccessor accessor) {
+    chatPresenceService.typing(roomId, findSessionMember(accessor));
   }
 
+  /**
+   * 읽음 처리 WebSocket
+   * @Request : PathVariable(채팅방 번호), ReadReceiptDto(lastReadMessageId : 화면에 표시된 가장 최신 메시지 id)
+   * 로직 : 채팅방을 보고 있는 중에 받은 메시지를 읽음 처리, 읽음 위치가 바뀌면 /sub/chat/room/{roomId}/read 로 읽음 확인 전송
+   */
+  @MessageMapping("/chat/{roomId}/read")
+  public void read(@DestinationVariable Long roomId,
+                   @Payload ReadReceiptDto receipt,
+                   SimpMessageHeaderAccessor accessor) {
+    chatService.markAsRead(findSessionMember(accessor), roomId, receipt.getLastReadMessageId());
+  }
+
+  /**
+   * 세션 연결시 FilterChannelInterceptor 에서 인증해둔 Principal 로 세션 - 멤버를 등록 (첫 세션이면 online 전송)
+   * 토큰이 없거나 유효하지 않은 연결은 Principal 이 없으므로 등록하지 않는다
+   */
   @EventListener(SessionConnectEvent.class)
   public void onConnect(SessionConnectEvent event) {
-    System.out.println("세션 연결됨");
-    String sessionId = event.getMessage().getHeaders().get("simpSessionId").toString();
-    System.out.println("내용이 뭘까? = " + event.getMessage().getHeaders().get("nativeHeaders").toString());
-    String userId = event.getMessage().getHeaders().get("nativeHeaders").toString().split("User=\\[")[1].split("]")[0];
-    System.out.println("userId = " + userId);
-    sessions.put(sessionId, Long.parseLong(userId));
+    Principal user = event.getUser();
+    if(user == null) return;
+    String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+    chatPresenceService.connect(sessionId, Long.parseLong(user.getName()));
   }
 
+  // 세션 종료 (마지막 세션이면 입력중 표시를 끄고 offline 전송)
   @EventListener(SessionDisconnectEvent.class)
   public void onDisconnect(SessionDisconnectEvent event) {
-    System.out.println("세션 끊김");
-    sessions.remove(event.getSessionId());
+    chatPresenceService.disconnect(event.getSessionId());
   }
+
+  // 메시지를 보낸 세션의 멤버 id
+  private Long findSessionMember(SimpMessageHeaderAccessor accessor) {
+    Long memberId = chatSessionRegistry.getMemberId(accessor.getSessionId());
+    if(memberId == null){
+      throw new IllegalStateException("인증되지 않은 세션입니다.");
+    }
+    return memberId;
+  }
+
   /**
-   * 채팅방 내용 가져오기 API
-   * @Request : PathVariable(가져올 방의 번호)
-   * @Response : List<MessageResponseDto> (여러개의 메시지들의 컬렉션)
-   * 로직 : ChatMessageRepository 에서 roomId를 가지고 전체조회,
-   * Front 에서는 DTO 의 chatMessageId 번호를 가지고 정렬하면 편할듯함
+   * 채팅방 내용 가져오기 API (커서 페이징)
+   * @Request : PathVariable(가져올 방의 번호), before/after(기준 메시지 id, 둘중 하나만), size(페이지 크기)
+   * @Response : ChatHistoryResponseDto (메시지 목록 + 다음 페이지 커서)
+   * 로직 : 커서가 없으면 가장 최근 페이지, before 가 있으면 그 이전 메시지, after 가 있으면 그 이후 메시지를 조회
+   * 메시지는 chatMessageId 오름차순으로 내려가므로 Front 에서 따로 정렬할 필요없음
    */
   @Operation(summary = "채팅방 내용 가져오기")
   @GetMapping("/api/auth/chat/{roomId}")
-  public ResponseEntity<List<MessageResponseDto>> getChatHistory(@PathVariable Long roomId){
-    return ResponseEntity.ok(chatService.findMessageHistory(roomId));
+  public ResponseEntity<ChatHistoryResponseDto> getChatHistory(@PathVariable Long roomId,
+                                                               @RequestParam(required = false) Long before,
+                                                               @RequestParam(required = false) Long after,
+                                                               @RequestParam(required = false) Integer size){
+    return ResponseEntity.ok(chatService.findMessageHistory(roomId, before, after, size));
   }
 
+  /**
+   * 채팅 메시지 검색 API
+   * @Request : keyword(검색어), roomId(채팅방 번호, 없으면 참여중인 모든 채팅방), page/size
+   * @Response : Page<MessageSearchResponseDto> (최신순)
+   * 결과의 chatMessageId 를 커서로 채팅방 내용 가져오기 API 를 호출하면 해당 위치로 이동할 수 있음
+   */
+  @Operation(summary = "채팅 메시지 검색")
+  @GetMapping("/api/auth/chat/search")
+  public ResponseEntity<Page<MessageSearchResponseDto>> searchMessage(@RequestParam String keyword,
+                                                                      @RequestParam(required = false) Long roomId,
+                                                                      @PageableDefault(size = 20) Pageable pageable){
+    return ResponseEntity.ok(chatService.findMessageByKeyword(keyword, roomId, pageable));
+  }
+
+  /**
+   * 안읽은 채팅 전체 개수 API
+   * 연결 직후 한번만 호출하고, 이후 바뀐 값은 /sub/chat/user/{memberId} 로 type = "UNREAD_COUNT" 메시지가 전송됨 (polling X)
+   */
   @Operation(summary = "안읽은 채팅 개수 가져오기")
   @GetMapping("/api/auth/chat/count")
   public ResponseEntity<Long> getChatCount(){
@@ -107,9 +181,9 @@ public class ChatController {
    * 입장시 "~사용자가 입장하였습니다" 전송
    */
   @MessageMapping("/api/auth/chat/{roomId}/enter")
-  public void chatRoomEnter(WebSocketSession session,
+  public void chatRoomEnter(SimpMessageHeaderAccessor accessor,
                             @DestinationVariable Long roomId){
-    Long userId = (Long) session.getAttributes().get("userId");
+    Long userId = findSessionMember(accessor);
     MessageResponseDto message = chatService.enterChatroom(userId, roomId);
     messagingTemplate.convertAndSend("/sub/chat/room/"+ roomId, message);
   }
@@ -2,6 +2,7 @@ package com.capstone.uniculture.controller;
 
 import com.capstone.uniculture.config.SecurityUtil;
 import com.capstone.uniculture.dto.Message.*;
+import com.capstone.uniculture.service.ChatPresenceService;
 import com.capstone.uniculture.service.ChatRoomService;
 import com.capstone.uniculture.service.ChatService;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -18,6 +19,7 @@ import java.util.List;
 public class ChatRoomController {
   private final ChatRoomService chatRoomService;
   private final ChatService chatService;
+  private final ChatPresenceService chatPresenceService;
 
   /**
    * 자신이 속한 모든 채팅방 조회 API
@@ -31,14 +33,25 @@ public class ChatRoomController {
   }
 
   /**
-   * 새로운 단체 채팅방 생성 API
-   * @Request : CreateChatRoomDto (채팅방의 이름과 참여자 명단이 들어감. 추후 단톡방 구현을 위해)
+   * 1:1 채팅방 생성 API (이미 있으면 그 채팅방)
+   * @Request : CreateChatRoomDto (상대 멤버 id)
    * @Response : ChatRoomIdResponseDto (새로 생선된 채팅방의 ID가 들어감)
    */
   @PostMapping
   public ResponseEntity<ChatRoomIdResponseDto> createRoom(@RequestBody CreateChatRoomDTO createChatRoomDTO) {
     Long memberId = SecurityUtil.getCurrentMemberId();
-    return ResponseEntity.ok(chatRoomService.createChatRoomWithMember(memberId,createChatRoomDTO.getMemberId()));
+    return ResponseEntity.ok(chatRoomService.checkAndCreate(memberId,createChatRoomDTO.getMemberId()));
+  }
+
+  /**
+   * 새로운 단체 채팅방 생성 API
+   * @Request : CreateGroupChatRoomDTO (채팅방의 이름과 초대할 멤버 id 명단)
+   * @Response : ChatRoomIdResponseDto (새로 생성된 채팅방의 ID가 들어감)
+   */
+  @PostMapping("/group")
+  public ResponseEntity<ChatRoomIdResponseDto> createGroupRoom(@RequestBody CreateGroupChatRoomDTO createGroupChatRoomDTO) {
+    Long memberId = SecurityUtil.getCurrentMemberId();
+    return ResponseEntity.ok(chatRoomService.createGroupChatRoom(memberId, createGroupChatRoomDTO));
   }
 
   @GetMapping("/duo")
@@ -51,12 +64,37 @@ public class ChatRoomController {
 
   /**
    * 채팅방 입장시 채팅의 목록들을 가져와야함. 또한 채팅방 기본정보 (참여자 명수, 채팅방 이름) 필요
-   * @Request : roomId (pathVariable 로 수신)
-   * @Response : 채팅의 내역들
+   * @Request : roomId (pathVariable 로 수신), before/after/size (커서 페이징)
+   * @Response : 채팅의 내역들 + 다음 페이지 커서
    */
   @GetMapping("/{roomId}")
-  public List<MessageResponseDto> getChatHistory(@PathVariable Long roomId){
-    return chatService.findMessageHistory(roomId);
+  public ChatHistoryResponseDto getChatHistory(@PathVariable Long roomId,
+                                               @RequestParam(required = false) Long before,
+                                               @RequestParam(required = false) Long after,
+                                               @RequestParam(required = false) Integer size){
+    return chatService.findMessageHistory(roomId, before, after, size);
+  }
+
+  /**
+   * 채팅방 참여자 접속 상태 조회 API (DB 조회 X)
+   * @Request : roomId (pathVariable 로 수신)
+   * @Response : List<PresenceDto> 참여자별 접속 여부. 이후 변경은 /sub/chat/presence/{memberId} 구독으로 받음
+   */
+  @GetMapping("/{roomId}/presence")
+  public ResponseEntity<List<PresenceDto>> presence(@PathVariable("roomId") Long roomId){
+    return ResponseEntity.ok(chatPresenceService.findRoomPresence(roomId, SecurityUtil.getCurrentMemberId()));
+  }
+
+  /**
+   * 채팅방 자동 번역 모드 설정 API
+   * @Request : roomId (pathVariable 로 수신), enabled (켜기/끄기)
+   * @Response : 결과 메시지
+   * 켜져 있으면 메시지마다 받는 사람의 언어로 번역된 내용이 /sub/chat/user/{memberId}/translation 으로 따로 전송됨
+   */
+  @PatchMapping("/{roomId}/translate")
+  public ResponseEntity<String> autoTranslate(@PathVariable("roomId") Long roomId,
+                                              @RequestParam boolean enabled){
+    return ResponseEntity.ok(chatRoomService.updateAutoTranslate(roomId, SecurityUtil.getCurrentMemberId(), enabled));
   }
 
   /**
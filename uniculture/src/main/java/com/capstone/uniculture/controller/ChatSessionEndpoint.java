@@ -0,0 +1,24 @@
+package com.capstone.uniculture.controller;
+
+import com.capstone.uniculture.service.ChatSessionMonitor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * WebSocket 세션 메모리 추정치 (GET /actuator/chatsessions, ADMIN 만)
+ * 세션 수, 구독 수, 전송 대기 프레임과 세션당 추정 메모리로 채팅 서버 한대가 받을 수 있는 연결 수를 가늠한다
+ */
+@Component
+@Endpoint(id = "chatsessions")
+@RequiredArgsConstructor
+public class ChatSessionEndpoint {
+
+  private final ChatSessionMonitor chatSessionMonitor;
+
+  @ReadOperation
+  public ChatSessionMonitor.Summary summary() {
+    return chatSessionMonitor.getSummary();
+  }
+}
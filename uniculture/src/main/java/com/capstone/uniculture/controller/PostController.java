@@ -6,6 +6,7 @@ import com.capstone.uniculture.dto.Post.Request.PostListRequestDto;
 import com.capstone.uniculture.dto.Post.Request.PostStatusDto;
 import com.capstone.uniculture.dto.Post.Request.PostUpdateDto;
 import com.capstone.uniculture.dto.Post.Response.PostDetailDto;
+import com.capstone.uniculture.dto.Post.Response.PostFeedResponseDto;
 import com.capstone.uniculture.dto.Post.Response.PostListDto;
 import com.capstone.uniculture.dto.Post.Response.PostSearchDto;
 import com.capstone.uniculture.entity.Post.PostCategory;
@@ -73,6 +74,18 @@ public class PostController {
         return ResponseEntity.ok(postService.getAllPosts(pageable, postListRequestDto));
     }
 
+    // 메인창 게시물 목록 (커서 페이징). 첫 요청은 cursor 없이, 다음 페이지는 응답의 nextCursor 를 그대로 넘긴다
+    @Operation(summary = "게시글 전체 조회 - 커서 페이징",
+            description = "postType, postCategory, postStatus 조건은 게시글 전체 조회와 같고 최신순으로만 조회합니다. " +
+                    "다음 페이지는 응답의 nextCursor 를 cursor 로 넘겨주세요 (hasNext 가 false 면 마지막 페이지)")
+    @GetMapping("/post/feed")
+    public ResponseEntity<PostFeedResponseDto> postFeed(
+            @ModelAttribute PostListRequestDto postListRequestDto,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size){
+        return ResponseEntity.ok(postService.getPostFeed(postListRequestDto, cursor, size));
+    }
+
     @Operation(summary = "멤버별 게시글 리스트")
     @GetMapping("/post/member/{memberId}")
     public ResponseEntity<Page<PostListDto>> MemberPostList(
@@ -0,0 +1,39 @@
+package com.capstone.uniculture.dto.Message;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@NoArgsConstructor
+public class ChatHistoryResponseDto {
+  private List<MessageResponseDto> messages; // 오래된 메시지 -> 최신 메시지 순으로 정렬
+  private Long nextCursor; // 다음 페이지 요청시 before(또는 after) 로 넘길 메시지 id, 더 없으면 null
+  private Boolean hasNext;
+
+  @Builder
+  public ChatHistoryResponseDto(List<MessageResponseDto> messages, Long nextCursor, Boolean hasNext) {
+    this.messages = messages;
+    this.nextCursor = nextCursor;
+    this.hasNext = hasNext;
+  }
+
+  /**
+   * 오래된 -> 최신 순으로 정렬된 메시지 중 최근 size 개로 첫 페이지 생성
+   * @param hasOlder messages 보다 더 오래된 메시지가 있는지
+   */
+  public static ChatHistoryResponseDto latestOf(List<MessageResponseDto> messages, int size, boolean hasOlder) {
+    boolean hasNext = hasOlder || messages.size() > size;
+    List<MessageResponseDto> page = messages.size() > size
+            ? new ArrayList<>(messages.subList(messages.size() - size, messages.size()))
+            : messages;
+    return ChatHistoryResponseDto.builder()
+            .messages(page)
+            .hasNext(hasNext && !page.isEmpty())
+            .nextCursor(hasNext && !page.isEmpty() ? page.get(0).getChatMessageId() : null)
+            .build();
+  }
+}
@@ -17,15 +17,17 @@ public class ChatMessageDTO {
   private Long receiver; // 상대 id
   private String message; // 메시지
   private LocalDateTime createdDate; // 시간
+  private String clientMessageId; // 클라이언트가 만든 메시지 id (선택). 재연결 후 같은 메시지를 다시 보내면 한번만 저장/전송
 
   @Builder
-  public ChatMessageDTO(MessageType type, Long roomId, String sender, Long receiver, String message, LocalDateTime createdDate) {
+  public ChatMessageDTO(MessageType type, Long roomId, String sender, Long receiver, String message, LocalDateTime createdDate, String clientMessageId) {
     this.type = type;
     this.roomId = roomId;
     this.sender = sender;
     this.receiver = receiver;
     this.message = message;
     this.createdDate = createdDate;
+    this.clientMessageId = clientMessageId;
   }
 
   // DTO -> Entity
@@ -0,0 +1,25 @@
+package com.capstone.uniculture.dto.Message;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * 메시지 전송(ChatService.sendMessage2) 결과 - 컨트롤러가 브로드캐스트할 내용
+ * duplicate 면 재전송된 메시지라서 이미 저장/전송됐으므로 나머지는 null
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class ChatSendResultDto {
+  private MessageResponseDto roomMessage; // 채팅방 토픽(/sub/chat/room/{roomId})용
+  private ChatMessageDTO userMessage; // 유저 토픽(/sub/chat/user/{memberId})용
+  private Set<Long> memberIds; // 받을 참여자 id (보낸 사람 포함)
+  private boolean duplicate;
+
+  public static ChatSendResultDto duplicate() {
+    return ChatSendResultDto.builder().duplicate(true).build();
+  }
+}
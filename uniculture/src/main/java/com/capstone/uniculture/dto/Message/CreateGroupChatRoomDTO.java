@@ -0,0 +1,11 @@
+package com.capstone.uniculture.dto.Message;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CreateGroupChatRoomDTO {
+  private String name; // 채팅방 이름
+  private List<Long> memberIds; // 초대할 멤버들 (만든 사람은 자동으로 참여)
+}
@@ -0,0 +1,35 @@
+package com.capstone.uniculture.dto.Message;
+
+import com.capstone.uniculture.entity.Message.ChatMessage;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 채팅 검색 결과 한건
+ * chatMessageId 를 커서로 채팅 내역 API 를 호출하면(before = id + 1 또는 after = id - 1) 해당 메시지 위치로 이동할 수 있다
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSearchResponseDto {
+  private Long roomId;
+  private Long chatMessageId;
+  private String sender;
+  private String message;
+  private LocalDateTime createDate;
+
+  public static MessageSearchResponseDto fromEntity(Long roomId, ChatMessage chatMessage){
+    return MessageSearchResponseDto.builder()
+            .roomId(roomId)
+            .chatMessageId(chatMessage.getId())
+            .sender(chatMessage.getMember().getNickname())
+            .message(chatMessage.getMessage())
+            .createDate(chatMessage.getCreatedDate())
+            .build();
+  }
+}
@@ -0,0 +1,17 @@
+package com.capstone.uniculture.dto.Message;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 접속 상태 (/sub/chat/presence/{memberId})
+ * 멤버의 첫번째 세션이 연결되면 online = true, 마지막 세션이 끊기면 online = false
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceDto {
+  private Long memberId;
+  private boolean online;
+}
@@ -0,0 +1,21 @@
+package com.capstone.uniculture.dto.Message;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 읽음 확인
+ * 서버 -> 클라이언트 : /sub/chat/room/{roomId}/read 로 memberId 가 lastReadMessageId 까지 읽었다고 알림
+ * 클라이언트 -> 서버 : /pub/chat/{roomId}/read 로 lastReadMessageId 만 담아서 전송 (채팅방을 보고 있는 중에 받은 메시지)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadReceiptDto {
+  private Long roomId;
+  private Long memberId;
+  private Long lastReadMessageId;
+}
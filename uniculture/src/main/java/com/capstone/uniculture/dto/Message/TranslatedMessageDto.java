@@ -0,0 +1,23 @@
+package com.capstone.uniculture.dto.Message;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 자동 번역 (/sub/chat/user/{memberId}/translation)
+ * 자동 번역 모드인 채팅방에서 원문 메시지가 전송된 뒤, 받는 사람의 언어로 번역된 내용을 따로 보내준다
+ * chatMessageId 로 원문 메시지와 짝을 맞춰서 표시
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TranslatedMessageDto {
+  private Long roomId;
+  private Long chatMessageId;
+  private String sourceLanguage;
+  private String targetLanguage;
+  private String message;
+}
@@ -0,0 +1,18 @@
+package com.capstone.uniculture.dto.Message;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 입력중 표시 (/sub/chat/room/{roomId}/typing)
+ * 입력을 시작하면 typing = true, 일정 시간 입력이 없거나 메시지를 보내거나 연결이 끊기면 typing = false
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TypingDto {
+  private Long roomId;
+  private Long memberId;
+  private boolean typing;
+}
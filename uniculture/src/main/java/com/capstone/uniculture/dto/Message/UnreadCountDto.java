@@ -0,0 +1,20 @@
+package com.capstone.uniculture.dto.Message;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 안읽은 채팅 전체 개수 (/sub/chat/user/{memberId})
+ * 같은 토픽으로 오는 ChatMessageDTO 와 구분할 수 있도록 type = "UNREAD_COUNT" 로 보낸다
+ * 바뀔때만 전송되므로, 연결 직후 한번만 /api/auth/chat/count 로 가져오고 이후에는 이 메시지로 갱신
+ */
+@Getter
+@NoArgsConstructor
+public class UnreadCountDto {
+  private final String type = "UNREAD_COUNT";
+  private Long unreadCount;
+
+  public UnreadCountDto(Long unreadCount) {
+    this.unreadCount = unreadCount;
+  }
+}
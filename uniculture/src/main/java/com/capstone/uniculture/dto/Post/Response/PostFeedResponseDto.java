@@ -0,0 +1,50 @@
+package com.capstone.uniculture.dto.Post.Response;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+@Getter
+@NoArgsConstructor
+public class PostFeedResponseDto {
+    private List<PostListDto> posts; // 최신순 (작성시간, id 내림차순)
+    private String nextCursor; // 다음 페이지 요청시 cursor 로 넘길 값, 더 없으면 null
+    private Boolean hasNext;
+
+    @Builder
+    public PostFeedResponseDto(List<PostListDto> posts, String nextCursor, Boolean hasNext) {
+        this.posts = posts;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+    }
+
+    public static PostFeedResponseDto of(Slice<PostListDto> slice) {
+        List<PostListDto> posts = slice.getContent();
+        boolean hasNext = slice.hasNext() && !posts.isEmpty();
+        PostListDto last = hasNext ? posts.get(posts.size() - 1) : null;
+        return PostFeedResponseDto.builder()
+                .posts(posts)
+                .hasNext(hasNext)
+                .nextCursor(last == null ? null : last.getCreateDate() + "_" + last.getPostId())
+                .build();
+    }
+
+    // 커서 = "작성시간_게시물id" (마지막으로 받은 게시물)
+    public static Cursor parseCursor(String cursor) {
+        int separator = cursor.lastIndexOf('_');
+        try {
+            return new Cursor(LocalDateTime.parse(cursor.substring(0, separator)),
+                    Long.parseLong(cursor.substring(separator + 1)));
+        } catch (IndexOutOfBoundsException | DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다.");
+        }
+    }
+
+    public record Cursor(LocalDateTime createdDate, Long postId) {
+    }
+}
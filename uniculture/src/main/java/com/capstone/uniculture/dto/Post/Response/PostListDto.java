@@ -1,6 +1,5 @@
 package com.capstone.uniculture.dto.Post.Response;
 
-import com.capstone.uniculture.entity.Post.Post;
 import com.capstone.uniculture.entity.Post.PostStatus;
 import lombok.Builder;
 import lombok.Getter;
@@ -14,10 +13,13 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 public class PostListDto {
 
+    // 목록에 내려주는 content 최대 길이 (PostRepository.POST_LIST_SELECT 에서 잘라서 조회)
+    public static final int EXCERPT_LENGTH = 200;
+
     private Long postId;
     private String imageUrl;
     private String title;
-    private String content;
+    private String content; // 본문 앞부분 (EXCERPT_LENGTH 자)
     private Integer viewCount;
     private Integer commentCount;
     private Integer likeCount;
@@ -43,20 +45,4 @@ public class PostListDto {
         this.modifiedDate = modifiedDate;
         this.imageUrl = imageUrl;
     }
-
-    public static PostListDto fromEntity(Post post){
-        return PostListDto.builder()
-                .postId(post.getId())
-                .title(post.getTitle())
-                .imageUrl(post.getImageUrl())
-                .content(post.getContent())
-                .postStatus(post.getPostStatus())
-                .viewCount(post.getViewCount())
-                .commentCount(post.getCommentCount())
-                .likeCount(post.getLikeCount())
-                .writerName(post.getMember().getNickname())
-                .createDate(post.getCreatedDate())
-                .modifiedDate(post.getModifiedDate())
-                .build();
-    }
 }
@@ -14,7 +14,10 @@ import org.hibernate.annotations.DynamicInsert;
 @Getter @Setter
 @NoArgsConstructor
 @Table(indexes = {
-        @Index(columnList = "chatRoom_id")
+        // 채팅 내역 커서 페이징(chatRoom_id = ? AND id < ?) 용 복합 인덱스
+        @Index(name = "idx_chat_message_room_id", columnList = "chatRoom_id, id"),
+        // 오래된 메시지 보관(ChatMessageArchiver, created_date < ?) 용
+        @Index(name = "idx_chat_message_created_date", columnList = "created_date")
 })
 @DynamicInsert
 public class ChatMessage extends BaseEntity {
@@ -42,6 +45,7 @@ public class ChatMessage extends BaseEntity {
 
   private String message;
 
+  // 더 이상 갱신하지 않음 - 읽음 상태는 ChatRoomMembership.lastReadMessageId 로 관리 (예전 데이터 호환용)
   @ColumnDefault("false")
   private Boolean isRead;
 
@@ -7,6 +7,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
@@ -15,42 +16,48 @@ import java.util.stream.Collectors;
 
 @Entity @Getter @Setter
 @NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_chat_room_member_pair", columnNames = {"member1_id", "member2_id"}))
 public class ChatRoom extends BaseEntity{
 
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
-  private String name;
+  private String name; // 단체 채팅방 이름 (1:1 채팅방은 null)
+
+  @Enumerated(EnumType.STRING)
+  @ColumnDefault("'DUO'")
+  private ChatRoomType type = ChatRoomType.DUO;
+  // 자동 번역 모드 : 메시지마다 받는 사람의 언어로 번역해서 따로 보내준다 (ChatTranslationService)
+  @ColumnDefault("false")
+  private boolean autoTranslate;
   private String latestMessage;
   private LocalDateTime latestMessageTime;
   // 마지막 메시지 시간이 필요함 -> modifiedDate 로 하면 name 이 바뀔때도 변하므로 안됨
 
+  // 1:1 채팅방의 두 멤버. 단체 채팅방은 null 이고 참여자는 ChatRoomMembership 으로만 관리
   @ManyToOne(fetch = FetchType.LAZY)
-  @JoinColumn(name="member1_id", nullable = false)
+  @JoinColumn(name="member1_id")
   private Member member1;
 
   @ManyToOne(fetch = FetchType.LAZY)
-  @JoinColumn(name="member2_id", nullable = false)
+  @JoinColumn(name="member2_id")
   private Member member2;
 
   @OneToMany(mappedBy = "chatRoom", cascade = CascadeType.ALL)
   private List<ChatMessage> messages = new ArrayList<>();
 
 
+  // 단체 채팅방
   public ChatRoom(String name, List<Member> members){
     this.name = uniqueName(name, members);
+    this.type = ChatRoomType.MULTI;
   }
 
+  // 1:1 채팅방은 항상 member1 = id 가 작은 쪽, member2 = 큰 쪽으로 저장 (두 사람당 방 하나)
   public ChatRoom(Member member1, Member member2) {
-    this.member1 = member1;
-    this.member2 = member2;
-  }
-
-  // 연관관계 편의 메소드
-  public void addMessage(ChatMessage message){
-    messages.add(message);
-    setLatestMessage(message.getMessage());
-    setLatestMessageTime(message.getCreatedDate()); // 만들어진 시간 활용
+    boolean ordered = member1.getId() < member2.getId();
+    this.member1 = ordered ? member1 : member2;
+    this.member2 = ordered ? member2 : member1;
   }
 
   // 사용자 편의 메소드
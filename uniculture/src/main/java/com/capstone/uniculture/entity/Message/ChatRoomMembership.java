@@ -6,11 +6,15 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Getter
 @Setter
 @NoArgsConstructor
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "uk_chat_room_membership_room_member", columnNames = {"chatRoom_id", "member_id"})
+})
 public class ChatRoomMembership extends BaseEntity {
   // 이 엔티티로 ManyToMany 관계를 풀수있을 뿐만 아니라, Member 가 ChatRoom 에 들어간 시간을 알 수 있음.
   @Id
@@ -25,6 +29,14 @@ public class ChatRoomMembership extends BaseEntity {
   @JoinColumn(name = "member_id")
   private Member member;
 
+  // 이 멤버가 이 방에서 안읽은 메시지 수. 메시지 전송시 +1, 읽으면 lastReadMessageId 이후 메시지 수로 다시 계산 (COUNT 쿼리 대신 사용)
+  @ColumnDefault("0")
+  private Long unreadCount = 0L;
+
+  // 읽음 위치 (이 id 까지의 메시지는 읽음). 메시지마다 isRead 를 바꾸는 대신 이 값만 앞으로 옮긴다
+  @ColumnDefault("0")
+  private Long lastReadMessageId = 0L;
+
   public ChatRoomMembership(ChatRoom chatRoom, Member member) {
     this.chatRoom = chatRoom;
     this.member = member;
@@ -9,6 +9,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -18,6 +19,14 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@DynamicUpdate // 바뀐 컬럼만 UPDATE (view_count 처럼 DB 에서 직접 더하는 컬럼을 엔티티 값으로 덮어쓰지 않도록)
+@Table(indexes = {
+        // 메인창 게시물 목록 커서 페이징(최신순, (작성시간, id) 커서) 용 복합 인덱스. 필터(카테고리/타입/상태) 조합별 (PostService.findFeed)
+        @Index(name = "idx_post_feed", columnList = "created_date, id"),
+        @Index(name = "idx_post_feed_category", columnList = "post_category, created_date, id"),
+        @Index(name = "idx_post_feed_category_type", columnList = "post_category, posttype, created_date, id"),
+        @Index(name = "idx_post_feed_category_status", columnList = "post_category, post_status, created_date, id")
+})
 public class Post extends BaseEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -90,17 +99,6 @@ public class Post extends BaseEntity {
         this.commentCount -= 1;
     }
 
-    // 편의 메소드
-    public void upViewCount(){ this.viewCount++; }
-
-    public void likePost(){
-        this.likeCount += 1;
-    }
-
-    public void unlikePost(){
-        this.likeCount -= 1;
-    }
-
     public void update(PostUpdateDto postUpdateDto) {
         this.title = postUpdateDto.getTitle();
         this.content = postUpdateDto.getContents();
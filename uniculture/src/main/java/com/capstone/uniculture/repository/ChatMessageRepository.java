@@ -1,12 +1,15 @@
 package com.capstone.uniculture.repository;
 
 import com.capstone.uniculture.entity.Message.ChatMessage;
+import com.capstone.uniculture.entity.Message.MessageType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -14,13 +17,58 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
 
   List<ChatMessage> findByChatRoom_Id(Long roomId);
 
-  @Query("SELECT COUNT(c) FROM ChatMessage c WHERE c.toMember.id = :memberId AND c.isRead = FALSE")
-  Long countChatMessageByMember_Id(Long memberId);
+  /**
+   * 채팅 내역 커서 페이징 - (chatRoom_id, id) 복합 인덱스를 타도록 id 로만 범위를 자른다
+   * 최신 페이지 / before 이전 페이지는 id 내림차순, after 이후 페이지는 id 오름차순으로 가져온다
+   */
+  @Query("SELECT c FROM ChatMessage c JOIN FETCH c.member WHERE c.chatRoom.id = :roomId ORDER BY c.id DESC")
+  List<ChatMessage> findLatestPage(@Param("roomId") Long roomId, Pageable pageable);
 
-  @Query("SELECT COUNT(c) FROM ChatMessage c WHERE c.chatRoom.id = :chatRoomId AND c.isRead = FALSE AND c.toMember.id = :memberId")
-  Long countUnreadMessage(Long chatRoomId, Long memberId);
+  @Query("SELECT c FROM ChatMessage c JOIN FETCH c.member WHERE c.chatRoom.id = :roomId AND c.id < :before ORDER BY c.id DESC")
+  List<ChatMessage> findPageBefore(@Param("roomId") Long roomId, @Param("before") Long before, Pageable pageable);
+
+  @Query("SELECT c FROM ChatMessage c JOIN FETCH c.member WHERE c.chatRoom.id = :roomId AND c.id > :after ORDER BY c.id ASC")
+  List<ChatMessage> findPageAfter(@Param("roomId") Long roomId, @Param("after") Long after, Pageable pageable);
+
+  // 검색 색인 생성용 - 방의 메시지를 id 순으로 잘라서 id, 내용만 읽는다
+  @Query("SELECT c.id AS id, c.message AS message FROM ChatMessage c WHERE c.chatRoom.id = :roomId AND c.id > :after ORDER BY c.id ASC")
+  List<MessageText> findTextsAfter(@Param("roomId") Long roomId, @Param("after") Long after, Pageable pageable);
+
+  // 검색 결과 메시지 조회
+  @Query("SELECT c FROM ChatMessage c JOIN FETCH c.member WHERE c.id IN :ids")
+  List<ChatMessage> findAllWithMemberByIdIn(@Param("ids") List<Long> ids);
+
+  /**
+   * 보관(ChatMessageArchiver)용 - cutoff 보다 먼저 작성된 메시지를 id 순으로 잘라서 보관에 필요한 컬럼만 읽는다
+   * 작성 시간 조건은 idx_chat_message_created_date 로 찾는다
+   * 같은 방에 id 가 더 작은데 아직 보관 기준이 안된 메시지가 있으면 빼고 다음에 옮긴다
+   * (보관소는 방마다 id 오름차순으로만 이어 붙이므로, 순서를 건너뛰어 옮기면 그 메시지가 보관되지 않고 지워짐)
+   */
+  @Query("SELECT c.id AS id, r.id AS roomId, c.type AS type, m.id AS memberId, t.id AS toMemberId, " +
+          "c.message AS message, c.createdDate AS createdDate " +
+          "FROM ChatMessage c JOIN c.chatRoom r LEFT JOIN c.member m LEFT JOIN c.toMember t " +
+          "WHERE c.createdDate < :cutoff AND c.id > :after " +
+          "AND NOT EXISTS (SELECT 1 FROM ChatMessage n WHERE n.chatRoom = c.chatRoom AND n.id < c.id " +
+          "AND (n.createdDate IS NULL OR n.createdDate >= :cutoff)) " +
+          "ORDER BY c.id ASC")
+  List<ArchivableMessage> findArchivableBefore(@Param("cutoff") LocalDateTime cutoff, @Param("after") Long after, Pageable pageable);
 
   @Modifying
-  @Query("UPDATE ChatMessage c SET c.isRead = true WHERE c.chatRoom.id = :chatRoomId and c.toMember.id = :memberId")
-  void readChatMessage(Long chatRoomId, Long memberId);
+  @Query("DELETE FROM ChatMessage c WHERE c.id IN :ids")
+  int deleteAllByIdIn(@Param("ids") List<Long> ids);
+
+  interface ArchivableMessage {
+    Long getId();
+    Long getRoomId();
+    MessageType getType();
+    Long getMemberId();
+    Long getToMemberId();
+    String getMessage();
+    LocalDateTime getCreatedDate();
+  }
+
+  interface MessageText {
+    Long getId();
+    String getMessage();
+  }
 }
@@ -1,10 +1,13 @@
 package com.capstone.uniculture.repository;
 
+import com.capstone.uniculture.dto.Message.ChatRoomDTO;
 import com.capstone.uniculture.entity.Member.Member;
 import com.capstone.uniculture.entity.Message.ChatRoom;
 import com.capstone.uniculture.entity.Message.ChatRoomMembership;
 import com.capstone.uniculture.entity.Message.ChatRoomType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -23,7 +26,62 @@ public interface ChatRoomMembershipRepository extends JpaRepository<ChatRoomMemb
   Optional<ChatRoomMembership> findByChatRoomAndMember(ChatRoom chatRoom, Member member);
 
 
+  // 채팅방 참여자 id 목록
+  @Query("SELECT crm.member.id FROM ChatRoomMembership crm WHERE crm.chatRoom.id = :chatRoomId")
+  List<Long> findMemberIdsByChatRoomId(@Param("chatRoomId") Long chatRoomId);
+
+  // 멤버가 참여중인 채팅방 id 목록 (최근에 메시지가 온 방부터)
+  @Query("SELECT r.id FROM ChatRoomMembership crm JOIN crm.chatRoom r WHERE crm.member.id = :memberId " +
+          "ORDER BY r.latestMessageTime DESC, r.id DESC")
+  List<Long> findRecentChatRoomIdsByMemberId(@Param("memberId") Long memberId, Pageable pageable);
+
   // 멤버 아이디와 채팅방 아이디를 주고 존재하는지 확인
   Boolean existsByChatRoom_IdAndMember_Id(Long chatroomId, Long memberId);
 
+  /**
+   * 채팅방 목록 - 방 정보, 상대 닉네임(단체 채팅방은 방 이름), 안읽은 메시지 수를 쿼리 한번으로 조회
+   * 안읽은 메시지 수는 ChatRoomMembership 에 저장된 값을 쓰므로 채팅 내역 양과 상관없이 비용이 일정함
+   */
+  @Query("SELECT new com.capstone.uniculture.dto.Message.ChatRoomDTO(r.id, " +
+          "COALESCE(r.name, CASE WHEN m1.id = :memberId THEN m2.nickname ELSE m1.nickname END), " +
+          "r.latestMessage, r.latestMessageTime, crm.unreadCount) " +
+          "FROM ChatRoomMembership crm JOIN crm.chatRoom r LEFT JOIN r.member1 m1 LEFT JOIN r.member2 m2 " +
+          "WHERE crm.member.id = :memberId")
+  List<ChatRoomDTO> findRoomSummaries(@Param("memberId") Long memberId);
+
+  // 메시지 전송시 보낸 사람을 제외한 방 참여자들의 안읽은 메시지 수 +1 (이미 그 메시지 이후까지 읽은 사람은 제외)
+  @Modifying
+  @Query("UPDATE ChatRoomMembership crm SET crm.unreadCount = crm.unreadCount + 1 " +
+          "WHERE crm.chatRoom.id = :chatRoomId AND crm.member.id <> :senderId AND crm.lastReadMessageId < :messageId")
+  void increaseUnreadCount(@Param("chatRoomId") Long chatRoomId, @Param("senderId") Long senderId,
+                           @Param("messageId") Long messageId);
+
+  /**
+   * 클라이언트가 보낸 읽음 위치(:messageId)를 채팅방의 마지막 메시지 id 까지로 자른 값 (아직 없는 메시지까지 읽음 처리되지 않도록)
+   * write-behind 모드에서는 아직 저장되지 않은 메시지가 있으므로 :issuedUpTo(지금까지 발급됐을 수 있는 id)까지 인정
+   */
+  String READ_UP_TO = "LEAST(:messageId, GREATEST(:issuedUpTo, " +
+          "COALESCE((SELECT MAX(m.id) FROM ChatMessage m WHERE m.chatRoom.id = :chatRoomId), 0)))";
+
+  /**
+   * 읽음 위치를 messageId 로 옮기고, 안읽은 메시지 수를 그 이후 메시지 수로 다시 계산
+   * - 읽음 위치는 앞으로만 이동 (예전 페이지를 봐도 그대로), 채팅방의 마지막 메시지를 넘지 않음 (READ_UP_TO)
+   * - 이후 메시지 수는 (chatRoom_id, id) 인덱스 범위만 세므로, 최신 메시지까지 읽었다면 거의 0건
+   * @return 읽음 위치가 바뀌었으면 1
+   */
+  @Modifying
+  @Query("UPDATE ChatRoomMembership crm SET crm.lastReadMessageId = " + READ_UP_TO + ", " +
+          "crm.unreadCount = (SELECT COUNT(c) FROM ChatMessage c " +
+          "WHERE c.chatRoom.id = :chatRoomId AND c.id > " + READ_UP_TO + " AND c.member.id <> :memberId) " +
+          "WHERE crm.chatRoom.id = :chatRoomId AND crm.member.id = :memberId AND crm.lastReadMessageId < " + READ_UP_TO)
+  int advanceReadWatermark(@Param("chatRoomId") Long chatRoomId, @Param("memberId") Long memberId,
+                           @Param("messageId") Long messageId, @Param("issuedUpTo") Long issuedUpTo);
+
+  @Query("SELECT crm.lastReadMessageId FROM ChatRoomMembership crm WHERE crm.chatRoom.id = :chatRoomId AND crm.member.id = :memberId")
+  Long findLastReadMessageId(@Param("chatRoomId") Long chatRoomId, @Param("memberId") Long memberId);
+
+  // 멤버의 전체 안읽은 메시지 수
+  @Query("SELECT COALESCE(SUM(crm.unreadCount), 0) FROM ChatRoomMembership crm WHERE crm.member.id = :memberId")
+  Long sumUnreadCount(@Param("memberId") Long memberId);
+
 }
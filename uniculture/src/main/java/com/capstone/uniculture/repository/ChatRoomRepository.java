@@ -3,10 +3,12 @@ package com.capstone.uniculture.repository;
 import com.capstone.uniculture.entity.Message.ChatRoom;
 import com.capstone.uniculture.entity.Message.ChatRoomType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,8 +16,36 @@ import java.util.Optional;
 public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long > {
 
 
-    @Query("SELECT c.id FROM ChatRoom c WHERE c.member1.id = :member1 AND c.member2.id = :member2")
-    Optional<Long> findByMember1_IdAndMember2_Id(@Param("member1") Long member1, @Param("member2") Long member2);
+    /**
+     * 1:1 채팅방 조회 - member1 < member2 로 정렬된 순서로만 저장되므로 (member1_id, member2_id) 유니크 인덱스 한번으로 찾는다
+     * 예전 데이터의 정렬과 중복 방 정리는 db/migration/V3__chat_room_member_pair.sql
+     */
+    @Query("SELECT MIN(c.id) FROM ChatRoom c WHERE c.member1.id = :minMemberId AND c.member2.id = :maxMemberId")
+    Optional<Long> findDuoRoomId(@Param("minMemberId") Long minMemberId, @Param("maxMemberId") Long maxMemberId);
+
+    /**
+     * 메시지 전송용 채팅방 정보 - ChatRoom 엔티티(메시지 컬렉션 포함)를 영속성 컨텍스트에 올리지 않고 필요한 컬럼만 읽는다
+     */
+    @Query("SELECT c.id AS id, c.type AS type, m1.id AS member1Id, m2.id AS member2Id, c.autoTranslate AS autoTranslate " +
+            "FROM ChatRoom c LEFT JOIN c.member1 m1 LEFT JOIN c.member2 m2 WHERE c.id = :roomId")
+    Optional<RoomHeader> findHeaderById(@Param("roomId") Long roomId);
+
+    /**
+     * 채팅방 목록에 보여줄 마지막 메시지 갱신 (UPDATE 한번, 엔티티 조회 X)
+     * 늦게 처리된 예전 메시지가 더 최신 메시지를 덮어쓰지 않도록 시간이 같거나 나중인 경우만
+     */
+    @Modifying
+    @Query("UPDATE ChatRoom c SET c.latestMessage = :message, c.latestMessageTime = :time " +
+            "WHERE c.id = :roomId AND (c.latestMessageTime IS NULL OR c.latestMessageTime <= :time)")
+    int updateLatestMessage(@Param("roomId") Long roomId, @Param("message") String message, @Param("time") LocalDateTime time);
+
+    interface RoomHeader {
+        Long getId();
+        ChatRoomType getType();
+        Long getMember1Id();
+        Long getMember2Id();
+        Boolean getAutoTranslate();
+    }
 
     @Query("SELECT c FROM ChatRoom c JOIN FETCH c.member2 WHERE c.member1.id = :memberId")
     List<ChatRoom> findByMember1_Id(@Param("memberId") Long memberId);
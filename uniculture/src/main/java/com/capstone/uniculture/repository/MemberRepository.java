@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,6 +45,24 @@ public interface MemberRepository extends JpaRepository<Member,Long> , JpaSpecif
     @Query("SELECT m.nickname FROM Member m WHERE m.id = :memberId")
     String findNicknameById(@Param("memberId") Long memberId);
 
+    // 번역할 언어를 정하기 위한 국가 정보만 조회 (MemberLanguageCache)
+    @Query("SELECT m.id AS id, m.country AS country FROM Member m WHERE m.id IN :memberIds")
+    List<MemberCountry> findCountriesByIdIn(@Param("memberIds") Collection<Long> memberIds);
+
+    // 보관된 채팅 메시지의 보낸 사람 닉네임 조회 (ChatMessageArchive)
+    @Query("SELECT m.id AS id, m.nickname AS nickname FROM Member m WHERE m.id IN :memberIds")
+    List<MemberNickname> findNicknamesByIdIn(@Param("memberIds") Collection<Long> memberIds);
+
+    interface MemberNickname {
+        Long getId();
+        String getNickname();
+    }
+
+    interface MemberCountry {
+        Long getId();
+        String getCountry();
+    }
+
     @Query("SELECT m.remainCount FROM Member m WHERE m.id = :memberId")
     Long countRemainCount(@Param("memberId") Long memberId);
 
@@ -2,12 +2,56 @@ package com.capstone.uniculture.repository;
 
 import com.capstone.uniculture.entity.Post.PostLike;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface PostLikeRepository extends JpaRepository<PostLike,Long> {
 
     Optional<PostLike> findByMember_IdAndPost_Id(Long memberId, Long postId);
 
-    void deleteByMember_IdAndPost_Id(Long memberId, Long postId);
+    /**
+     * 좋아요 추가 - 게시물이 있고 아직 좋아요를 누르지 않았을 때만 INSERT (조회 후 저장 X, 한 문장으로)
+     * 동시에 같은 좋아요가 들어오면 (member_id, post_id) 유니크 제약으로 하나만 성공
+     * @return 추가된 행 수 (0 이면 이미 눌렀거나 게시물이 없음)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO post_like (member_id, post_id, created_date, modified_date) " +
+            "SELECT :memberId, p.id, :now, :now FROM post p " +
+            "WHERE p.id = :postId " +
+            "AND NOT EXISTS (SELECT 1 FROM post_like pl WHERE pl.member_id = :memberId AND pl.post_id = :postId)",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("memberId") Long memberId, @Param("postId") Long postId, @Param("now") LocalDateTime now);
+
+    // 좋아요를 누른 시간 (취소할때 인기 게시물 집계에서 그 시간대만큼 빼기 위해)
+    @Query("SELECT pl.createdDate FROM PostLike pl WHERE pl.member.id = :memberId AND pl.post.id = :postId")
+    Optional<LocalDateTime> findCreatedDate(@Param("memberId") Long memberId, @Param("postId") Long postId);
+
+    /**
+     * 인기 게시물(PostRanking) 재집계용 - since 이후 좋아요를 게시물, 1시간 단위로 묶은 건수
+     * 좋아요 행 수가 아닌 (게시물 수 x 시간) 만큼만 읽는다
+     */
+    @Query("SELECT pl.post.id AS postId, YEAR(pl.createdDate) AS year, MONTH(pl.createdDate) AS month, " +
+            "DAY(pl.createdDate) AS day, HOUR(pl.createdDate) AS hour, COUNT(pl) AS count " +
+            "FROM PostLike pl WHERE pl.createdDate >= :since " +
+            "GROUP BY pl.post.id, YEAR(pl.createdDate), MONTH(pl.createdDate), DAY(pl.createdDate), HOUR(pl.createdDate)")
+    List<HourlyLikeCount> countHourlySince(@Param("since") LocalDateTime since);
+
+    // 좋아요 취소 - 엔티티를 조회하지 않고 바로 DELETE. 삭제된 행 수 반환
+    @Modifying
+    @Query("DELETE FROM PostLike pl WHERE pl.member.id = :memberId AND pl.post.id = :postId")
+    int deleteByMemberIdAndPostId(@Param("memberId") Long memberId, @Param("postId") Long postId);
+
+    interface HourlyLikeCount {
+        Long getPostId();
+        Integer getYear();
+        Integer getMonth();
+        Integer getDay();
+        Integer getHour();
+        Long getCount();
+    }
 }
@@ -1,5 +1,6 @@
 package com.capstone.uniculture.repository;
 
+import com.capstone.uniculture.dto.Post.Response.PostListDto;
 import com.capstone.uniculture.entity.Member.Member;
 import com.capstone.uniculture.entity.Post.Post;
 import com.capstone.uniculture.entity.Post.PostCategory;
@@ -14,12 +15,20 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface PostRepository extends JpaRepository<Post,Long>, JpaSpecificationExecutor<Post> {
 
+    /**
+     * 게시물 목록(카드)용 projection - Post 엔티티 대신 PostListDto 를 바로 생성
+     * content(TEXT) 전체가 아닌 앞부분 PostListDto.EXCERPT_LENGTH 자만 읽고, 작성자는 닉네임만 (Member 엔티티 X)
+     */
+    String POST_LIST_SELECT = "SELECT new com.capstone.uniculture.dto.Post.Response.PostListDto(" +
+            "p.id, p.title, SUBSTRING(p.content, 1, " + PostListDto.EXCERPT_LENGTH + "), p.postStatus, " +
+            "p.viewCount, p.commentCount, p.likeCount, m.nickname, p.createdDate, p.modifiedDate, p.imageUrl) ";
+
     /*
     @Query(value = "SELECT p.* FROM post p JOIN post_like pl ON p.id = pl.post_id " +
             "WHERE pl.created_date >= DATEADD(DAY, -7, CURRENT_DATE) " +
@@ -27,11 +36,9 @@ public interface PostRepository extends JpaRepository<Post,Long>, JpaSpecificati
             "ORDER BY COUNT(*) DESC LIMIT 5", nativeQuery = true)
     List<Post> findMostLikedPostLastWeek();*/
 
-    @Query("SELECT p FROM Post p JOIN p.postLikes pl " +
-            "WHERE pl.createdDate >= :oneWeekAgo " +
-            "GROUP BY p.id " +
-            "ORDER BY COUNT(pl) DESC")
-    Page<Post> findMostLikedPostLastWeek(@Param("oneWeekAgo") LocalDateTime oneWeekAgo, Pageable pageable);
+    // 주간 인기 게시물(PostRanking 에서 고른 id)의 목록 카드
+    @Query(POST_LIST_SELECT + "FROM Post p JOIN p.member m WHERE p.id IN :postIds")
+    List<PostListDto> findPostListByIdIn(@Param("postIds") Collection<Long> postIds);
 
 
     @Query("SELECT COUNT(p) FROM Post p WHERE p.member = :member")
@@ -56,14 +63,18 @@ public interface PostRepository extends JpaRepository<Post,Long>, JpaSpecificati
      * 전체 게시물을 조회하는 메소드 - 메인창에 들어갈 내용
      * 여기서는 Comment 까지 Join 필요X. CommentCount 만 쓸꺼기때문
      */
-    @Query("SELECT DISTINCT p FROM Post p JOIN FETCH p.member " +
+    @Query(value = POST_LIST_SELECT + "FROM Post p JOIN p.member m " +
+            "WHERE (:pt is null or p.posttype = :pt) " +
+            "and (:ct is null or p.postCategory = :ct) " +
+            "and (:ps is null or p.postStatus = :ps)",
+            countQuery = "SELECT COUNT(p) FROM Post p " +
             "WHERE (:pt is null or p.posttype = :pt) " +
-            "and (:ct is null or p.postCategory = :ct)" +
+            "and (:ct is null or p.postCategory = :ct) " +
             "and (:ps is null or p.postStatus = :ps)")
-    Page<Post> findAllWithMemberAndComments(Pageable pageable,
-                                            @Param("pt") PostType postType,
-                                            @Param("ct") PostCategory postCategory,
-                                            @Param("ps") PostStatus postStatus);
+    Page<PostListDto> findPostList(Pageable pageable,
+                                   @Param("pt") PostType postType,
+                                   @Param("ct") PostCategory postCategory,
+                                   @Param("ps") PostStatus postStatus);
 
     /**
      * Post 타입에 따른 게시물만 조회하는 메소드 - 메인창에 들어갈 내용
@@ -74,17 +85,19 @@ public interface PostRepository extends JpaRepository<Post,Long>, JpaSpecificati
 
     /**
      *  유저 ID와 게시물 Category 따른 게시물만 조회하는 메소드 - 프로필창에 들어갈 내용
-     *  Member 와는 관계가 1:1이기때문에 Fetch Join 해서 Paging 하더라도 문제가 발생하지 않음
+     *  목록용 projection 이므로 Member 는 닉네임만 Join
      */
-    @Query("SELECT p FROM Post p JOIN FETCH p.member WHERE p.postCategory = :postCategory and p.member.id = :memberId")
-    Page<Post> findByMemberIdWithMember(@Param("postCategory") PostCategory postCategory, @Param("memberId") Long memberId, Pageable pageable);
+    @Query(value = POST_LIST_SELECT + "FROM Post p JOIN p.member m WHERE p.postCategory = :postCategory and m.id = :memberId",
+            countQuery = "SELECT COUNT(p) FROM Post p WHERE p.postCategory = :postCategory and p.member.id = :memberId")
+    Page<PostListDto> findPostListByMemberId(@Param("postCategory") PostCategory postCategory, @Param("memberId") Long memberId, Pageable pageable);
 
     /**
      * 내 친구인 Member 의 게시물만 조회하는 메소드
-     * Member 와는 관계가 1:1이기때문에 Fetch Join 해서 Paging 하더라도 문제가 발생하지 않음
+     * 목록용 projection 이므로 Member 는 닉네임만 Join
      */
-    @Query("SELECT p FROM Post p JOIN FETCH p.member WHERE p.member IN (SELECT f.toMember FROM Friendship f WHERE f.fromMember.id = :myId)")
-    Page<Post> findPostsFromMyFriends(@Param("myId") Long myId, Pageable pageable);
+    @Query(value = POST_LIST_SELECT + "FROM Post p JOIN p.member m WHERE m.id IN (SELECT f.toMember.id FROM Friendship f WHERE f.fromMember.id = :myId)",
+            countQuery = "SELECT COUNT(p) FROM Post p WHERE p.member.id IN (SELECT f.toMember.id FROM Friendship f WHERE f.fromMember.id = :myId)")
+    Page<PostListDto> findPostListFromMyFriends(@Param("myId") Long myId, Pageable pageable);
 
     @Query(value = "SELECT p FROM Post p JOIN FETCH p.member WHERE p.title LIKE %:title%")
     Page<Post> findAllByTitleContaining(@Param("title") String title, Pageable pageable);
@@ -113,6 +126,14 @@ public interface PostRepository extends JpaRepository<Post,Long>, JpaSpecificati
             @Param("tag") List<String> tag,
             Pageable pageable);
 
+    /**
+     * 좋아요 수 증감 (DB 에서 바로 더하므로 동시에 눌러도 사라지는 증가분이 없음)
+     * 트랜잭션의 마지막 문장으로 실행해서 게시물 행 잠금을 커밋 직전까지만 잡는다
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.likeCount = p.likeCount + :delta WHERE p.id = :postId")
+    int addLikeCount(@Param("postId") Long postId, @Param("delta") int delta);
+
     @Modifying
     @Query("UPDATE Post p SET p.postStatus= :postStatus WHERE p.id = :postId")
     void changeStatus(@Param("postId") Long postId, @Param("postStatus") PostStatus postStatus);
@@ -1,9 +1,6 @@
 package com.capstone.uniculture.repository;
 
-import com.capstone.uniculture.entity.Post.Post;
 import com.capstone.uniculture.entity.Post.PostTag;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -20,13 +17,23 @@ public interface PostTagRepository extends JpaRepository<PostTag, Long> {
             "ORDER BY COUNT(*) DESC LIMIT 5", nativeQuery = true)
     List<String> findMostUsedPostTagLastWeek();
     */
-    @Query("SELECT pt.hashtag FROM PostTag pt " +
-            "WHERE pt.createdDate >= :startDate " +
-            "GROUP BY pt.hashtag " +
-            "ORDER BY COUNT(*) DESC")
-    Page<String> findMostUsedPostTagLastWeek(@Param("startDate") LocalDateTime startDate, Pageable pageable);
-
+    /**
+     * 인기 태그(PostRanking) 재집계용 - since 이후 달린 태그를 태그, 1시간 단위로 묶은 건수
+     */
+    @Query("SELECT pt.hashtag AS hashtag, YEAR(pt.createdDate) AS year, MONTH(pt.createdDate) AS month, " +
+            "DAY(pt.createdDate) AS day, HOUR(pt.createdDate) AS hour, COUNT(pt) AS count " +
+            "FROM PostTag pt WHERE pt.createdDate >= :since " +
+            "GROUP BY pt.hashtag, YEAR(pt.createdDate), MONTH(pt.createdDate), DAY(pt.createdDate), HOUR(pt.createdDate)")
+    List<HourlyTagCount> countHourlySince(@Param("since") LocalDateTime since);
 
-    void deleteAllByPostId(Long postId);
+    List<PostTag> findAllByPostId(Long postId);
 
+    interface HourlyTagCount {
+        String getHashtag();
+        Integer getYear();
+        Integer getMonth();
+        Integer getDay();
+        Integer getHour();
+        Long getCount();
+    }
 }
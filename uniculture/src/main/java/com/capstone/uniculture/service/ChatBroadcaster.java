@@ -0,0 +1,81 @@
+package com.capstone.uniculture.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 채팅 메시지 fan-out 전송
+ * convertAndSend 는 목적지마다 JSON 변환을 다시 하므로, payload 하나당 한번만 byte[] 로 변환하고
+ * 같은 Message 를 여러 목적지로 보낸다 (방 토픽 + 받는 사람/보낸 사람 유저 토픽)
+ * JSON 변환은 브로커 템플릿에 등록된 Jackson 컨버터의 ObjectMapper 를 그대로 써서 기존과 같은 형식으로 나간다
+ */
+@Component
+public class ChatBroadcaster {
+
+  private final SimpMessagingTemplate messagingTemplate;
+  private final ObjectMapper objectMapper;
+
+  public ChatBroadcaster(SimpMessagingTemplate messagingTemplate) {
+    this.messagingTemplate = messagingTemplate;
+    this.objectMapper = findObjectMapper(messagingTemplate.getMessageConverter());
+  }
+
+  public static Delivery delivery(Object payload, String... destinations) {
+    return new Delivery(payload, destinations);
+  }
+
+  // payload 마다 한번씩만 직렬화해서 모든 목적지로 전송
+  public void broadcast(Delivery... deliveries) {
+    for (Delivery delivery : deliveries) {
+      Message<byte[]> message = MessageBuilder.withPayload(encode(delivery.payload))
+              .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON)
+              .build();
+      for (String destination : delivery.destinations) {
+        messagingTemplate.send(destination, message);
+      }
+    }
+  }
+
+  private byte[] encode(Object payload) {
+    try {
+      return objectMapper.writeValueAsBytes(payload);
+    } catch (JsonProcessingException e) {
+      throw new MessageConversionException("채팅 메시지를 JSON 으로 변환할 수 없습니다.", e);
+    }
+  }
+
+  private static ObjectMapper findObjectMapper(MessageConverter converter) {
+    if(converter instanceof MappingJackson2MessageConverter jackson) return jackson.getObjectMapper();
+    if(converter instanceof CompositeMessageConverter composite){
+      for (MessageConverter child : composite.getConverters()) {
+        if(child instanceof MappingJackson2MessageConverter jackson) return jackson.getObjectMapper();
+      }
+    }
+    throw new IllegalStateException("브로커 템플릿에 Jackson 메시지 컨버터가 없습니다.");
+  }
+
+  // 같은 payload 를 받을 목적지들 (중복 목적지는 한번만 보냄)
+  public static class Delivery {
+    private final Object payload;
+    private final Set<String> destinations;
+
+    private Delivery(Object payload, String... destinations) {
+      this.payload = payload;
+      this.destinations = new LinkedHashSet<>(List.of(destinations));
+    }
+  }
+}
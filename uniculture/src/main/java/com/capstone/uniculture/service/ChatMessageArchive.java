@@ -0,0 +1,420 @@
+package com.capstone.uniculture.service;
+
+import com.capstone.uniculture.dto.Message.MessageResponseDto;
+import com.capstone.uniculture.entity.Message.MessageType;
+import com.capstone.uniculture.repository.MemberRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 오래된 채팅 메시지 보관소 (cold storage)
+ * ChatMessageArchiver 가 DB 에서 옮겨온 메시지를 채팅방별 파일에 이어 붙이기만 한다 (수정/삭제 X)
+ *
+ * 파일 구조 : {dir}/{roomId}/{세그먼트 첫 메시지 id}.seg
+ * - 세그먼트는 블록의 나열. 블록 = [압축 길이 int][첫 id long][마지막 id long][메시지 수 int] + Deflate 압축된 메시지(최대 256개)
+ * - 세그먼트가 segment-bytes 를 넘으면 다음 세그먼트 파일을 새로 만든다 (mmap 은 파일 하나당 2GB 까지)
+ * - 색인은 블록마다 (첫 id, 마지막 id, 위치) 한개만 두는 sparse index 로, 파일을 열때 블록 헤더만 건너뛰며 만든다
+ * - 읽을때는 세그먼트를 읽기 전용으로 mmap 해서 필요한 블록만 압축을 푼다
+ * - 쓰다가 서버가 죽어서 마지막 블록이 잘린 경우, 읽을때는 잘린 부분을 무시하고 다음 쓰기때 덮어쓴다
+ * 발신자는 멤버 id 로 저장하고, 읽을때 현재 닉네임으로 바꿔서 돌려준다 (DB 의 메시지와 같은 형식)
+ * 서버를 여러대 띄우면 모든 서버가 같은 디스크를 dir 로 보고, 열어둔 색인은 파일이 바뀐걸 확인하면 다시 만든다
+ * - 쓰기는 JVM 안에서는 writeLock, 서버끼리는 {dir}/.lock 파일 잠금(FileChannel.lock)으로 한번에 하나만 한다
+ *   파일 잠금이 서버 사이에 동작하는 디스크여야 함 (로컬 디스크, 잠금을 지원하는 NFSv4 등)
+ * - 읽기는 잠그지 않는다 (쓰다 만 블록은 읽을때 무시)
+ */
+@Slf4j
+@Component
+public class ChatMessageArchive {
+
+  private static final int BLOCK_HEADER_BYTES = 4 + 8 + 8 + 4;
+  private static final int MESSAGES_PER_BLOCK = 256;
+  private static final String SEGMENT_SUFFIX = ".seg";
+  private static final long NULL_ID = -1L;
+  private static final String LOCK_FILE = ".lock";
+
+  private final MemberRepository memberRepository;
+  private final Path directory;
+  private final long segmentBytes;
+  private final int maxOpenRooms;
+
+  private final Object writeLock = new Object();
+  // 읽기용으로 열어둔 채팅방 색인 (accessOrder = true 로 가장 오래 안쓴 방이 맨 앞)
+  private final LinkedHashMap<Long, RoomArchive> rooms = new LinkedHashMap<>(64, 0.75f, true);
+
+  public ChatMessageArchive(MemberRepository memberRepository,
+                            @Value("${chat.archive.dir:./chat-archive}") String directory,
+                            @Value("${chat.archive.segment-bytes:67108864}") long segmentBytes,
+                            @Value("${chat.archive.max-open-rooms:256}") int maxOpenRooms) {
+    this.memberRepository = memberRepository;
+    this.directory = Paths.get(directory);
+    this.segmentBytes = segmentBytes;
+    this.maxOpenRooms = maxOpenRooms;
+  }
+
+  /**
+   * 보관할 메시지 한 건
+   * createdDate 는 서버 시간대 그대로 저장 (DB 의 created_date 와 같은 기준)
+   */
+  public record ArchivedMessage(Long id, MessageType type, Long memberId, Long toMemberId,
+                                String message, LocalDateTime createdDate) {
+  }
+
+  /**
+   * 채팅방 보관소에 메시지 추가 (id 오름차순으로 넘겨야 함)
+   * 이미 보관된 id 이하의 메시지는 건너뛰므로, 보관 후 DB 삭제 전에 죽어서 다시 넘어와도 중복 저장되지 않는다
+   * 디스크에 기록(fsync)된 뒤에 반환하므로, 반환 후에 DB 에서 지워도 된다
+   * 쓰기는 모든 서버를 통틀어 한번에 한 스레드만, 항상 잠근 뒤 파일에서 새로 읽은 색인으로 하고 끝나면 읽기용 색인을 버린다 (다음 읽기때 다시 만듦)
+   */
+  public void append(Long roomId, List<ArchivedMessage> messages) {
+    synchronized (writeLock) {
+      RoomArchive room = new RoomArchive(roomDirectory(roomId));
+      try {
+        Files.createDirectories(directory);
+        try (FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = lockChannel.lock()) {
+          appendLocked(room, messages);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("채팅 보관 파일에 쓸 수 없습니다 : " + roomId, e);
+      }
+    }
+    synchronized (rooms) {
+      rooms.remove(roomId);
+    }
+  }
+
+  // 보관소 잠금을 잡은 상태에서 색인을 새로 읽고, 이미 보관된 id 이후 메시지만 블록 단위로 이어 붙인다
+  private void appendLocked(RoomArchive room, List<ArchivedMessage> messages) throws IOException {
+    room.load();
+    long lastId = room.lastId();
+    List<ArchivedMessage> pending = messages.stream()
+            .filter(message -> message.id() > lastId)
+            .collect(Collectors.toList());
+    for (int from = 0; from < pending.size(); from += MESSAGES_PER_BLOCK) {
+      room.append(pending.subList(from, Math.min(from + MESSAGES_PER_BLOCK, pending.size())));
+    }
+  }
+
+  // 보관된 가장 최신 메시지 id (보관된 메시지가 없으면 0)
+  public long lastArchivedId(Long roomId) {
+    if(!Files.isDirectory(roomDirectory(roomId))) return 0L;
+    RoomArchive room = open(roomId);
+    synchronized (room) {
+      return room.lastId();
+    }
+  }
+
+  /**
+   * before 보다 오래된 메시지를 최신순으로 최대 limit 개 (before 가 null 이면 가장 최신부터)
+   */
+  public List<MessageResponseDto> findBefore(Long roomId, Long before, int limit) {
+    if(limit <= 0 || !Files.isDirectory(roomDirectory(roomId))) return Collections.emptyList();
+    long upper = before == null ? Long.MAX_VALUE : before;
+
+    List<ArchivedMessage> result = new ArrayList<>();
+    RoomArchive room = open(roomId);
+    synchronized (room) {
+      for (int i = room.blocks.size() - 1; i >= 0 && result.size() < limit; i--) {
+        Block block = room.blocks.get(i);
+        if(block.firstId >= upper) continue;
+        List<ArchivedMessage> messages = room.read(block);
+        for (int j = messages.size() - 1; j >= 0 && result.size() < limit; j--) {
+          if(messages.get(j).id() < upper) result.add(messages.get(j));
+        }
+      }
+    }
+    return toResponses(result);
+  }
+
+  /**
+   * after 보다 최신 메시지를 오래된순으로 최대 limit 개
+   */
+  public List<MessageResponseDto> findAfter(Long roomId, long after, int limit) {
+    if(limit <= 0 || !Files.isDirectory(roomDirectory(roomId))) return Collections.emptyList();
+
+    List<ArchivedMessage> result = new ArrayList<>();
+    RoomArchive room = open(roomId);
+    synchronized (room) {
+      for (int i = firstBlockAfter(room.blocks, after); i < room.blocks.size() && result.size() < limit; i++) {
+        for (ArchivedMessage message : room.read(room.blocks.get(i))) {
+          if(message.id() > after && result.size() < limit) result.add(message);
+        }
+      }
+    }
+    return toResponses(result);
+  }
+
+  // lastId > after 인 첫 블록 (블록은 id 순이므로 이진 탐색)
+  private static int firstBlockAfter(List<Block> blocks, long after) {
+    int low = 0, high = blocks.size();
+    while(low < high){
+      int mid = (low + high) >>> 1;
+      if(blocks.get(mid).lastId <= after) low = mid + 1;
+      else high = mid;
+    }
+    return low;
+  }
+
+  // 멤버 id -> 현재 닉네임으로 바꿔서 DB 메시지와 같은 형식으로
+  private List<MessageResponseDto> toResponses(List<ArchivedMessage> messages) {
+    if(messages.isEmpty()) return Collections.emptyList();
+    Set<Long> memberIds = messages.stream()
+            .map(ArchivedMessage::memberId)
+            .filter(id -> id != null)
+            .collect(Collectors.toSet());
+    Map<Long, String> nicknames = new HashMap<>();
+    memberRepository.findNicknamesByIdIn(memberIds)
+            .forEach(member -> nicknames.put(member.getId(), member.getNickname()));
+
+    return messages.stream()
+            .map(message -> MessageResponseDto.builder()
+                    .chatMessageId(message.id())
+                    .messageType(message.type())
+                    .sender(nicknames.get(message.memberId()))
+                    .message(message.message())
+                    .createDate(message.createdDate())
+                    .build())
+            .collect(Collectors.toList());
+  }
+
+  private Path roomDirectory(Long roomId) {
+    return directory.resolve(String.valueOf(roomId));
+  }
+
+  private RoomArchive open(Long roomId) {
+    synchronized (rooms) {
+      RoomArchive room = rooms.get(roomId);
+      if(room != null && !room.isStale()) return room;
+
+      room = new RoomArchive(roomDirectory(roomId));
+      try {
+        room.load();
+      } catch (IOException e) {
+        throw new UncheckedIOException("채팅 보관 파일을 열 수 없습니다 : " + roomId, e);
+      }
+      rooms.put(roomId, room);
+      while(rooms.size() > maxOpenRooms){
+        rooms.remove(rooms.keySet().iterator().next());
+      }
+      return room;
+    }
+  }
+
+  // 메시지 : [id][타입][보낸 멤버 id][받는 멤버 id][작성 시간(초, 나노초)][내용 유무][내용 길이][내용 UTF-8]
+  private static byte[] encode(List<ArchivedMessage> messages) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+      for (ArchivedMessage message : messages) {
+        out.writeLong(message.id());
+        out.writeByte(message.type() == null ? -1 : message.type().ordinal());
+        out.writeLong(message.memberId() == null ? NULL_ID : message.memberId());
+        out.writeLong(message.toMemberId() == null ? NULL_ID : message.toMemberId());
+        LocalDateTime createdDate = message.createdDate() == null ? LocalDateTime.now() : message.createdDate();
+        out.writeLong(createdDate.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(createdDate.getNano());
+        out.writeBoolean(message.message() != null);
+        if(message.message() != null){
+          byte[] text = message.message().getBytes(StandardCharsets.UTF_8);
+          out.writeInt(text.length);
+          out.write(text);
+        }
+      }
+    } finally {
+      deflater.end();
+    }
+    return bytes.toByteArray();
+  }
+
+  private static List<ArchivedMessage> decode(byte[] payload, int count) throws IOException {
+    List<ArchivedMessage> messages = new ArrayList<>(count);
+    Inflater inflater = new Inflater();
+    try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(payload), inflater))) {
+      MessageType[] types = MessageType.values();
+      for (int i = 0; i < count; i++) {
+        long id = in.readLong();
+        int type = in.readByte();
+        long memberId = in.readLong();
+        long toMemberId = in.readLong();
+        LocalDateTime createdDate = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        String message = null;
+        if(in.readBoolean()){
+          byte[] text = new byte[in.readInt()];
+          in.readFully(text);
+          message = new String(text, StandardCharsets.UTF_8);
+        }
+        messages.add(new ArchivedMessage(id, type < 0 ? null : types[type],
+                memberId == NULL_ID ? null : memberId, toMemberId == NULL_ID ? null : toMemberId,
+                message, createdDate));
+      }
+    } finally {
+      inflater.end();
+    }
+    return messages;
+  }
+
+  // 한 채팅방의 세그먼트들과 블록 색인
+  private class RoomArchive {
+    private final Path directory;
+    private final List<Segment> segments = new ArrayList<>();
+    private final List<Block> blocks = new ArrayList<>();
+    private FileTime directoryModified;
+
+    private RoomArchive(Path directory) {
+      this.directory = directory;
+    }
+
+    // 다른 서버(또는 보관 작업)가 그 뒤에 파일을 추가/변경했는지 (세그먼트 추가 -> 디렉토리 시간, 블록 추가 -> 파일 크기)
+    private boolean isStale() {
+      try {
+        if(!Files.isDirectory(directory)) return directoryModified != null;
+        if(!Files.getLastModifiedTime(directory).equals(directoryModified)) return true;
+        Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        return last != null && Files.size(last.path) != last.validLength;
+      } catch (IOException e) {
+        return true;
+      }
+    }
+
+    // 세그먼트를 첫 id 순으로 열면서 블록 헤더만 읽어서 색인 생성
+    private void load() throws IOException {
+      if(!Files.isDirectory(directory)) return;
+      directoryModified = Files.getLastModifiedTime(directory);
+      List<Path> paths;
+      try (Stream<Path> files = Files.list(directory)) {
+        paths = files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted((a, b) -> Long.compare(segmentFirstId(a), segmentFirstId(b)))
+                .collect(Collectors.toList());
+      }
+
+      for (Path path : paths) {
+        Segment segment = new Segment(path);
+        segment.validLength = Files.size(path);
+        ByteBuffer mapped = segment.map();
+        int position = 0;
+        while(position + BLOCK_HEADER_BYTES <= mapped.limit()){
+          int length = mapped.getInt(position);
+          if(length < 0 || position + BLOCK_HEADER_BYTES + length > mapped.limit()) break; // 쓰다 만 블록
+          blocks.add(new Block(segment, position, length,
+                  mapped.getLong(position + 4), mapped.getLong(position + 12), mapped.getInt(position + 20)));
+          position += BLOCK_HEADER_BYTES + length;
+        }
+        if(position != segment.validLength){
+          log.warn("채팅 보관 파일 끝의 잘린 블록을 무시합니다 : {} ({} -> {} bytes)", path, segment.validLength, position);
+          segment.validLength = position;
+          segment.mapped = null;
+        }
+        segments.add(segment);
+      }
+    }
+
+    private long lastId() {
+      return blocks.isEmpty() ? 0L : blocks.get(blocks.size() - 1).lastId;
+    }
+
+    private void append(List<ArchivedMessage> messages) throws IOException {
+      Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+      if(segment == null || segment.validLength >= segmentBytes){
+        Files.createDirectories(directory);
+        segment = new Segment(directory.resolve(messages.get(0).id() + SEGMENT_SUFFIX));
+        segments.add(segment);
+      }
+
+      byte[] payload = encode(messages);
+      ByteBuffer buffer = ByteBuffer.allocate(BLOCK_HEADER_BYTES + payload.length);
+      buffer.putInt(payload.length)
+              .putLong(messages.get(0).id())
+              .putLong(messages.get(messages.size() - 1).id())
+              .putInt(messages.size())
+              .put(payload)
+              .flip();
+
+      try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+        channel.truncate(segment.validLength); // 이전에 쓰다 만 블록이 있으면 버림
+        long position = segment.validLength;
+        while(buffer.hasRemaining()){
+          position += channel.write(buffer, position);
+        }
+        channel.force(false);
+      }
+
+      blocks.add(new Block(segment, (int) segment.validLength, payload.length,
+              messages.get(0).id(), messages.get(messages.size() - 1).id(), messages.size()));
+      segment.validLength += BLOCK_HEADER_BYTES + payload.length;
+      segment.mapped = null; // 다음 읽기때 늘어난 길이로 다시 mmap
+    }
+
+    private List<ArchivedMessage> read(Block block) {
+      try {
+        ByteBuffer mapped = block.segment.map();
+        byte[] payload = new byte[block.length];
+        mapped.get(block.offset + BLOCK_HEADER_BYTES, payload);
+        return decode(payload, block.count);
+      } catch (IOException e) {
+        throw new UncheckedIOException("채팅 보관 파일을 읽을 수 없습니다 : " + block.segment.path, e);
+      }
+    }
+  }
+
+  private static long segmentFirstId(Path path) {
+    String name = path.getFileName().toString();
+    return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  // 세그먼트 파일 하나 (validLength 까지만 유효한 블록)
+  private static class Segment {
+    private final Path path;
+    private long validLength;
+    private MappedByteBuffer mapped;
+
+    private Segment(Path path) {
+      this.path = path;
+    }
+
+    private ByteBuffer map() throws IOException {
+      if(mapped == null){
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+          mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, validLength);
+        }
+      }
+      return mapped;
+    }
+  }
+
+  // sparse index 항목 : 블록 하나의 위치와 id 범위
+  private record Block(Segment segment, int offset, int length, long firstId, long lastId, int count) {
+  }
+}
@@ -0,0 +1,97 @@
+package com.capstone.uniculture.service;
+
+import com.capstone.uniculture.repository.ChatMessageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 오래된 채팅 메시지를 ChatMessage 테이블에서 보관소(ChatMessageArchive)로 옮기는 작업
+ * chat_message 테이블과 인덱스가 계속 커지지 않도록 max-age-days 보다 오래된 메시지를 주기적으로 옮기고 지운다
+ * - 작성 시간이 기준 시간 이전인 메시지만 (created_date 인덱스) id 순으로 batch-size 개씩 읽는다
+ *   중간에 최신 메시지가 섞여 있어도 멈추지 않고 끝까지 옮긴다 (방마다 id 순서는 지킴 - findArchivableBefore)
+ * - 보관 파일에 fsync 된 뒤에 DB 에서 지우므로, 중간에 죽어도 메시지가 사라지지 않는다 (다시 옮길때 중복은 보관소가 걸러냄)
+ * - 옮긴 방의 검색 색인은 버려서 다음 검색때 DB 에 남은 메시지로 다시 만든다 (보관된 메시지는 검색되지 않음)
+ */
+@Slf4j
+@Component
+public class ChatMessageArchiver {
+
+  private final ChatMessageRepository chatMessageRepository;
+  private final ChatMessageArchive chatMessageArchive;
+  private final ChatMessageSearchIndex chatMessageSearchIndex;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean enabled;
+  private final int maxAgeDays;
+  private final int batchSize;
+
+  public ChatMessageArchiver(ChatMessageRepository chatMessageRepository,
+                             ChatMessageArchive chatMessageArchive,
+                             ChatMessageSearchIndex chatMessageSearchIndex,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${chat.archive.enabled:false}") boolean enabled,
+                             @Value("${chat.archive.max-age-days:90}") int maxAgeDays,
+                             @Value("${chat.archive.batch-size:1000}") int batchSize) {
+    this.chatMessageRepository = chatMessageRepository;
+    this.chatMessageArchive = chatMessageArchive;
+    this.chatMessageSearchIndex = chatMessageSearchIndex;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.enabled = enabled;
+    this.maxAgeDays = maxAgeDays;
+    this.batchSize = batchSize;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Scheduled(fixedDelayString = "${chat.archive.interval-ms:3600000}", initialDelayString = "${chat.archive.initial-delay-ms:60000}")
+  public void scheduledArchive() {
+    if(enabled) archive(LocalDateTime.now().minusDays(maxAgeDays));
+  }
+
+  // cutoff 보다 먼저 작성된 메시지를 보관소로 옮기고 옮긴 메시지 수를 반환
+  public synchronized int archive(LocalDateTime cutoff) {
+    int archived = 0;
+    long after = 0L;
+    while(true){
+      // 1. 기준 시간 이전 메시지를 id 순으로
+      List<ChatMessageRepository.ArchivableMessage> expired =
+              chatMessageRepository.findArchivableBefore(cutoff, after, PageRequest.of(0, batchSize));
+      if(expired.isEmpty()) break;
+
+      // 2. 채팅방별로 보관 파일에 기록 (fsync 까지)
+      Map<Long, List<ChatMessageArchive.ArchivedMessage>> byRoom = new LinkedHashMap<>();
+      for (ChatMessageRepository.ArchivableMessage message : expired) {
+        byRoom.computeIfAbsent(message.getRoomId(), id -> new ArrayList<>())
+                .add(new ChatMessageArchive.ArchivedMessage(message.getId(), message.getType(), message.getMemberId(),
+                        message.getToMemberId(), message.getMessage(), message.getCreatedDate()));
+      }
+      byRoom.forEach(chatMessageArchive::append);
+
+      // 3. DB 에서 삭제
+      List<Long> ids = expired.stream()
+              .map(ChatMessageRepository.ArchivableMessage::getId)
+              .collect(Collectors.toList());
+      transactionTemplate.executeWithoutResult(status -> chatMessageRepository.deleteAllByIdIn(ids));
+      byRoom.keySet().forEach(chatMessageSearchIndex::evict);
+
+      archived += expired.size();
+      after = ids.get(ids.size() - 1);
+      if(expired.size() < batchSize) break;
+    }
+    if(archived > 0) log.info("채팅 메시지 {}건 보관 완료 (기준 : {})", archived, cutoff);
+    return archived;
+  }
+}
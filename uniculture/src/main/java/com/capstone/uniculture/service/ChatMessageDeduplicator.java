@@ -0,0 +1,82 @@
+package com.capstone.uniculture.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 채팅 메시지 중복 전송 방지 (clientMessageId)
+ * 모바일 클라이언트가 재연결하면서 같은 /pub/chat/{roomId} 프레임을 다시 보내는 경우, 처음 한번만 저장/전송한다
+ * - 채팅방마다 최근 window-ms 동안 받은 (보낸 멤버 id, clientMessageId) 를 들어온 순서대로 들고 있다 (DB 조회 X)
+ * - 확인은 HashMap 조회 한번, 오래된 항목은 맨 앞에서부터 지우므로 평균 O(1)
+ * - 방마다 max-per-room 개, 전체 max-rooms 개 방까지만 들고 있고 넘으면 오래된 것부터(방은 통째로) 버린다
+ * 서버마다 따로 들고 있으므로, 서버를 여러대 띄우면 같은 서버로 재연결된 경우에만 걸러진다
+ */
+@Component
+public class ChatMessageDeduplicator {
+
+  private final long windowMs;
+  private final int maxPerRoom;
+  private final int maxRooms;
+  private final Counter duplicates;
+  private final ConcurrentHashMap<Long, RoomWindow> rooms = new ConcurrentHashMap<>();
+
+  public ChatMessageDeduplicator(@Value("${chat.dedupe.window-ms:300000}") long windowMs,
+                                 @Value("${chat.dedupe.max-per-room:1000}") int maxPerRoom,
+                                 @Value("${chat.dedupe.max-rooms:100000}") int maxRooms,
+                                 MeterRegistry meterRegistry) {
+    this.windowMs = windowMs;
+    this.maxPerRoom = maxPerRoom;
+    this.maxRooms = maxRooms;
+    this.duplicates = Counter.builder("chat.message.duplicates")
+            .description("clientMessageId 가 같아서 버린 재전송 메시지 수")
+            .register(meterRegistry);
+  }
+
+  /**
+   * 처음 보는 메시지면 기록하고 true, window 안에 이미 받은 메시지면 false
+   */
+  public boolean markIfFirst(Long roomId, Long memberId, String clientMessageId) {
+    if(rooms.size() >= maxRooms && !rooms.containsKey(roomId)) rooms.clear();
+    RoomWindow window = rooms.computeIfAbsent(roomId, id -> new RoomWindow());
+    long now = System.currentTimeMillis();
+    synchronized (window) {
+      window.expire(now);
+      if(window.seen.putIfAbsent(new Key(memberId, clientMessageId), now) == null) return true;
+    }
+    duplicates.increment();
+    return false;
+  }
+
+  // 저장에 실패한 메시지는 기록을 지워서 재전송을 받을 수 있게 한다
+  public void forget(Long roomId, Long memberId, String clientMessageId) {
+    RoomWindow window = rooms.get(roomId);
+    if(window == null) return;
+    synchronized (window) {
+      window.seen.remove(new Key(memberId, clientMessageId));
+    }
+  }
+
+  private record Key(Long memberId, String clientMessageId) {
+  }
+
+  // 한 채팅방의 최근 메시지 id (들어온 순서 = 시간 순)
+  private class RoomWindow {
+    private final LinkedHashMap<Key, Long> seen = new LinkedHashMap<>();
+
+    private void expire(long now) {
+      Iterator<Map.Entry<Key, Long>> iterator = seen.entrySet().iterator();
+      while(iterator.hasNext()){
+        Map.Entry<Key, Long> eldest = iterator.next();
+        if(now - eldest.getValue() < windowMs && seen.size() < maxPerRoom) break;
+        iterator.remove();
+      }
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package com.capstone.uniculture.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * DB 의 IDENTITY 없이 채팅 메시지 id 를 발급하는 생성기 (write-behind 모드에서 사용)
+ * [41bit 밀리초 timestamp | 10bit 노드 id | 12bit 시퀀스] 구조라서 시간순으로 증가하고,
+ * 노드마다 node-id 를 다르게 주면 여러 서버에서 동시에 발급해도 겹치지 않는다.
+ * 발급되는 값은 IDENTITY 로 생성된 기존 id 보다 항상 크기 때문에 커서 페이징 정렬이 그대로 유지된다.
+ * write-behind 모드에서는 입장/퇴장 안내까지 모든 채팅 메시지 id 를 여기서만 발급한다 (ChatService.persistMessage)
+ */
+@Component
+public class ChatMessageIdGenerator {
+
+  private static final long EPOCH = 1704067200000L; // 2024-01-01T00:00:00Z
+  private static final int NODE_BITS = 10;
+  private static final int SEQUENCE_BITS = 12;
+  private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+  private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+  private final long nodeId;
+  private long lastTimestamp = -1L;
+  private long sequence = 0L;
+
+  public ChatMessageIdGenerator(@Value("${chat.write-behind.node-id:0}") long nodeId) {
+    if(nodeId < 0 || nodeId > MAX_NODE_ID){
+      throw new IllegalArgumentException("chat.write-behind.node-id 는 0 ~ " + MAX_NODE_ID + " 사이여야 합니다.");
+    }
+    this.nodeId = nodeId;
+  }
+
+  public synchronized long nextId() {
+    long timestamp = System.currentTimeMillis();
+
+    // 시계가 뒤로 가면 마지막 timestamp 를 계속 사용해서 id 가 줄어들지 않게 한다
+    if(timestamp < lastTimestamp) timestamp = lastTimestamp;
+
+    if(timestamp == lastTimestamp){
+      sequence = (sequence + 1) & SEQUENCE_MASK;
+      if(sequence == 0){ // 같은 밀리초에 4096개를 다 쓰면 다음 밀리초까지 대기
+        while(timestamp <= lastTimestamp) timestamp = System.currentTimeMillis();
+      }
+    } else {
+      sequence = 0L;
+    }
+    lastTimestamp = timestamp;
+
+    return ((timestamp - EPOCH) << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+  }
+
+  // 지금까지 어느 노드에서든 발급됐을 수 있는 가장 큰 id (이보다 큰 id 는 아직 없는 메시지)
+  public long maxIssuedId() {
+    return ((System.currentTimeMillis() - EPOCH + 1) << (NODE_BITS + SEQUENCE_BITS)) - 1;
+  }
+}
@@ -0,0 +1,263 @@
+package com.capstone.uniculture.service;
+
+import com.capstone.uniculture.repository.ChatMessageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 채팅 메시지 검색용 역색인 (채팅방별로 나눠서 관리)
+ * LIKE '%키워드%' 는 ChatMessage 전체를 훑어야 하므로, 토큰 -> 메시지 id 목록을 메모리에 들고 있다가 교집합으로 찾는다.
+ * - 한국어/일본어/중국어는 띄어쓰기로 단어를 나눌 수 없으므로 2글자씩(bigram) 잘라서 색인한다
+ *   한글자 검색("밥")도 찾을 수 있도록 글자 하나씩(unigram)도 같이 색인한다 (검색어는 2글자 이상이면 bigram 으로만 찾음)
+ * - 그 외 언어는 공백/문장부호로 단어를 나눠서 소문자로 색인한다
+ * - 방 색인은 처음 검색할 때 테이블 + write-behind 큐에 남은 메시지로 만들고(rebuild), 이후에는 메시지 전송때마다 추가된다
+ * - 색인된 방이 max-rooms 를 넘으면 가장 오래 안쓴 방의 색인을 버린다 (다음 검색때 다시 만듦)
+ */
+@Slf4j
+@Component
+public class ChatMessageSearchIndex {
+
+  private static final int REBUILD_CHUNK_SIZE = 1000;
+
+  private final ChatMessageRepository chatMessageRepository;
+  private final ChatMessageWriteBehindBuffer chatMessageWriteBehindBuffer;
+  private final int maxRooms;
+
+  // accessOrder = true 로 가장 오래 안쓴 방이 맨 앞
+  private final LinkedHashMap<Long, RoomIndex> rooms = new LinkedHashMap<>(256, 0.75f, true);
+
+  public ChatMessageSearchIndex(ChatMessageRepository chatMessageRepository,
+                                ChatMessageWriteBehindBuffer chatMessageWriteBehindBuffer,
+                                @Value("${chat.search.max-rooms:1000}") int maxRooms) {
+    this.chatMessageRepository = chatMessageRepository;
+    this.chatMessageWriteBehindBuffer = chatMessageWriteBehindBuffer;
+    this.maxRooms = maxRooms;
+  }
+
+  // 새 메시지 색인. 아직 색인을 만들지 않은 방은 검색할때 테이블에서 한번에 만든다
+  public void index(Long roomId, Long messageId, String message) {
+    RoomIndex room;
+    synchronized (rooms) {
+      room = rooms.get(roomId);
+    }
+    if(room == null || messageId == null) return;
+    synchronized (room) {
+      room.add(messageId, message);
+    }
+  }
+
+  // 키워드의 모든 토큰을 포함하는 메시지 id 목록 (최신순)
+  public long[] search(Long roomId, String keyword) {
+    Set<String> tokens = tokenize(keyword);
+    if(tokens.isEmpty()) return new long[0];
+
+    RoomIndex room = getOrCreate(roomId);
+    synchronized (room) {
+      if(!room.built) build(roomId, room);
+      return room.search(tokens);
+    }
+  }
+
+  // 테이블에서 방 색인을 다시 만든다
+  public void rebuild(Long roomId) {
+    RoomIndex room = getOrCreate(roomId);
+    synchronized (room) {
+      room.clear();
+      build(roomId, room);
+    }
+  }
+
+  public void evict(Long roomId) {
+    synchronized (rooms) {
+      rooms.remove(roomId);
+    }
+  }
+
+  private RoomIndex getOrCreate(Long roomId) {
+    synchronized (rooms) {
+      RoomIndex room = rooms.computeIfAbsent(roomId, id -> new RoomIndex());
+      while(rooms.size() > maxRooms){
+        Long eldest = rooms.keySet().iterator().next();
+        rooms.remove(eldest);
+      }
+      return room;
+    }
+  }
+
+  // id 순으로 잘라서 읽으며 색인 (방 전체를 한번에 메모리에 올리지 않음)
+  // 아직 저장되지 않은 메시지를 먼저 읽어둬야 그 사이에 저장된 메시지도 DB 쪽에서 읽힌다
+  private void build(Long roomId, RoomIndex room) {
+    List<ChatMessageWriteBehindBuffer.PendingMessage> unsaved = chatMessageWriteBehindBuffer.isEnabled()
+            ? chatMessageWriteBehindBuffer.getUnsaved() : List.of();
+    long after = 0L;
+    int count = 0;
+    while(true){
+      List<ChatMessageRepository.MessageText> chunk =
+              chatMessageRepository.findTextsAfter(roomId, after, PageRequest.of(0, REBUILD_CHUNK_SIZE));
+      for (ChatMessageRepository.MessageText text : chunk) {
+        room.add(text.getId(), text.getMessage());
+      }
+      count += chunk.size();
+      if(chunk.size() < REBUILD_CHUNK_SIZE) break;
+      after = chunk.get(chunk.size() - 1).getId();
+    }
+    for (ChatMessageWriteBehindBuffer.PendingMessage message : unsaved) {
+      if(message.getRoomId().equals(roomId)) room.add(message.getId(), message.getMessage());
+    }
+    room.built = true;
+    log.debug("채팅방 {} 검색 색인 생성 ({}건)", roomId, count);
+  }
+
+  /**
+   * 검색어 토큰 분리
+   * "안녕하세요 hello, World" -> [안녕, 녕하, 하세, 세요, hello, world]
+   * 한중일 글자가 한글자만 떨어져 있으면 그 글자 하나를 토큰으로 쓴다
+   */
+  static Set<String> tokenize(String text) {
+    return tokenize(text, false);
+  }
+
+  /**
+   * 색인용 토큰 분리 : 검색어 토큰 + 한중일 글자 하나씩
+   * "밥 먹었어" -> [밥, 먹었, 었어, 먹, 었, 어]
+   */
+  static Set<String> indexTokens(String text) {
+    return tokenize(text, true);
+  }
+
+  private static Set<String> tokenize(String text, boolean unigrams) {
+    Set<String> tokens = new LinkedHashSet<>();
+    if(text == null) return tokens;
+
+    StringBuilder word = new StringBuilder();
+    List<Integer> cjk = new ArrayList<>();
+    String lower = text.toLowerCase(Locale.ROOT);
+    for (int i = 0; i < lower.length(); ) {
+      int codePoint = lower.codePointAt(i);
+      i += Character.charCount(codePoint);
+
+      if(isCjk(codePoint)){
+        flushWord(word, tokens);
+        cjk.add(codePoint);
+      } else if(Character.isLetterOrDigit(codePoint)){
+        flushCjk(cjk, tokens, unigrams);
+        word.appendCodePoint(codePoint);
+      } else {
+        flushWord(word, tokens);
+        flushCjk(cjk, tokens, unigrams);
+      }
+    }
+    flushWord(word, tokens);
+    flushCjk(cjk, tokens, unigrams);
+    return tokens;
+  }
+
+  private static boolean isCjk(int codePoint) {
+    Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+    return script == Character.UnicodeScript.HANGUL
+            || script == Character.UnicodeScript.HAN
+            || script == Character.UnicodeScript.HIRAGANA
+            || script == Character.UnicodeScript.KATAKANA;
+  }
+
+  private static void flushWord(StringBuilder word, Set<String> tokens) {
+    if(word.length() > 0) tokens.add(word.toString());
+    word.setLength(0);
+  }
+
+  private static void flushCjk(List<Integer> cjk, Set<String> tokens, boolean unigrams) {
+    if(cjk.size() == 1){
+      tokens.add(new String(Character.toChars(cjk.get(0))));
+    }
+    for (int i = 0; i + 1 < cjk.size(); i++) {
+      tokens.add(new StringBuilder().appendCodePoint(cjk.get(i)).appendCodePoint(cjk.get(i + 1)).toString());
+    }
+    if(unigrams){
+      for (Integer codePoint : cjk) {
+        tokens.add(new String(Character.toChars(codePoint)));
+      }
+    }
+    cjk.clear();
+  }
+
+  // 한 채팅방의 색인 : 토큰 -> 메시지 id 목록(오름차순)
+  private static class RoomIndex {
+    private final Map<String, Postings> postings = new HashMap<>();
+    private boolean built;
+
+    private void add(Long messageId, String message) {
+      for (String token : indexTokens(message)) {
+        postings.computeIfAbsent(token, t -> new Postings()).add(messageId);
+      }
+    }
+
+    private void clear() {
+      postings.clear();
+      built = false;
+    }
+
+    // 가장 짧은 목록을 기준으로 나머지 목록에 모두 있는 id 만 남긴다
+    private long[] search(Set<String> tokens) {
+      List<Postings> lists = new ArrayList<>();
+      for (String token : tokens) {
+        Postings list = postings.get(token);
+        if(list == null) return new long[0];
+        lists.add(list);
+      }
+      lists.sort(Comparator.comparingInt(list -> list.size));
+
+      Postings smallest = lists.get(0);
+      long[] result = new long[smallest.size];
+      int count = 0;
+      for (int i = smallest.size - 1; i >= 0; i--) { // 최신순
+        long id = smallest.ids[i];
+        boolean all = true;
+        for (int j = 1; j < lists.size() && all; j++) {
+          all = lists.get(j).contains(id);
+        }
+        if(all) result[count++] = id;
+      }
+      return Arrays.copyOf(result, count);
+    }
+  }
+
+  // 정렬된 long 배열 (메시지는 대부분 id 순으로 들어오므로 보통 맨 뒤에 추가됨)
+  private static class Postings {
+    private long[] ids = new long[4];
+    private int size;
+
+    private void add(long id) {
+      if(size > 0 && ids[size - 1] >= id){
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if(position >= 0) return; // 이미 색인됨
+        insert(-position - 1, id);
+        return;
+      }
+      insert(size, id);
+    }
+
+    private void insert(int position, long id) {
+      if(size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+      System.arraycopy(ids, position, ids, position + 1, size - position);
+      ids[position] = id;
+      size++;
+    }
+
+    private boolean contains(long id) {
+      return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+  }
+}
@@ -0,0 +1,248 @@
+package com.capstone.uniculture.service;
+
+import com.capstone.uniculture.entity.Message.MessageType;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 채팅 메시지 write-behind 버퍼
+ * 전송된 메시지는 바로 브로드캐스트하고 이 큐에만 넣어두면, flusher 가 주기적으로 JDBC 배치 INSERT 로 저장한다.
+ * 채팅방의 latestMessage / latestMessageTime 은 flush 한번에 방마다 한번씩만 UPDATE 하고, 안읽은 메시지 수도 같은 배치로 갱신한다.
+ * 저장이 끝나면 받는 사람들의 안읽은 개수 배지(ChatUnreadCounter)를 DB 에서 다시 읽게 한다 (저장 전에 읽어간 값에는 빠져 있으므로)
+ * 켜져 있으면 입장/퇴장 안내를 포함한 모든 chat_message INSERT 가 이 큐를 거친다 (id 는 ChatMessageIdGenerator 하나에서만 발급)
+ * - 큐가 가득 차면 전송 스레드가 직접 flush 를 수행한다 (back-pressure), 그래도 자리가 나지 않으면 전송을 실패시킨다
+ * - flush 는 항상 별도 트랜잭션으로 저장한다 (전송 요청의 트랜잭션과 같이 커밋/롤백되지 않도록)
+ * - 서버 종료시 남아있는 메시지를 전부 저장한다
+ */
+@Slf4j
+@Component
+public class ChatMessageWriteBehindBuffer {
+
+  private static final String INSERT_MESSAGE =
+          "INSERT INTO chat_message (id, type, chat_room_id, member_id, to_member_id, message, is_read, created_date, modified_date) " +
+          "VALUES (?, ?, ?, ?, ?, ?, FALSE, ?, ?)";
+
+  private static final String UPDATE_ROOM_LATEST =
+          "UPDATE chat_room SET latest_message = ?, latest_message_time = ? WHERE id = ?";
+
+  private static final String INCREASE_UNREAD_COUNT =
+          "UPDATE chat_room_membership SET unread_count = unread_count + 1 " +
+          "WHERE chat_room_id = ? AND member_id <> ? AND last_read_message_id < ?";
+
+  // 큐가 가득 찼을때 전송 스레드가 직접 flush 해보는 최대 횟수 (DB 장애시 무한 대기 방지)
+  private static final int MAX_INLINE_FLUSHES = 3;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ChatUnreadCounter chatUnreadCounter;
+  private final boolean enabled;
+  private final int batchSize;
+  private final long offerTimeoutMs;
+  private final BlockingQueue<PendingMessage> queue;
+
+  // 일시적인 DB 오류로 저장하지 못한 메시지. 다음 flush 때 가장 먼저 다시 시도한다
+  private final List<PendingMessage> retryMessages = new ArrayList<>();
+  // 큐에서 꺼냈지만 아직 커밋되지 않은 메시지 (저장중인 배치 + 재시도 대기). 큐와 함께 unsavedLock 으로 읽고 바꾼다
+  private final Object unsavedLock = new Object();
+  private List<PendingMessage> unsaved = List.of();
+
+  public ChatMessageWriteBehindBuffer(JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager,
+                                      ChatUnreadCounter chatUnreadCounter,
+                                      @Value("${chat.write-behind.enabled:false}") boolean enabled,
+                                      @Value("${chat.write-behind.capacity:10000}") int capacity,
+                                      @Value("${chat.write-behind.batch-size:500}") int batchSize,
+                                      @Value("${chat.write-behind.offer-timeout-ms:50}") long offerTimeoutMs) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.chatUnreadCounter = chatUnreadCounter;
+    this.enabled = enabled;
+    this.batchSize = batchSize;
+    this.offerTimeoutMs = offerTimeoutMs;
+    this.queue = new ArrayBlockingQueue<>(capacity);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  // 현재 저장 대기중인 메시지 수
+  public int size() {
+    return queue.size();
+  }
+
+  /**
+   * 아직 DB 에 커밋되지 않은 메시지 (큐 + 저장중 + 재시도 대기)
+   * 이 목록을 먼저 읽고 DB 를 조회하면, 어느 메시지도 둘 사이에서 빠지지 않는다
+   */
+  public List<PendingMessage> getUnsaved() {
+    synchronized (unsavedLock) {
+      List<PendingMessage> messages = new ArrayList<>(unsaved);
+      messages.addAll(queue);
+      return messages;
+    }
+  }
+
+  // 메시지를 큐에 넣는다. 큐가 가득 차 있으면 직접 flush 해서 자리를 만들고, MAX_INLINE_FLUSHES 번 해도 안되면 전송 실패
+  public void enqueue(PendingMessage message) {
+    try {
+      for (int flushes = 0; !queue.offer(message, offerTimeoutMs, TimeUnit.MILLISECONDS); flushes++) {
+        if(flushes >= MAX_INLINE_FLUSHES){
+          throw new IllegalStateException("채팅 메시지를 저장할 수 없습니다. 잠시 후 다시 보내주세요.");
+        }
+        log.warn("채팅 저장 큐가 가득 찼습니다. 전송 스레드에서 직접 저장합니다. (size = {})", queue.size());
+        flush();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("채팅 메시지 저장 대기중 인터럽트가 발생했습니다.", e);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${chat.write-behind.flush-interval-ms:200}")
+  public void scheduledFlush() {
+    if(enabled) flush();
+  }
+
+  // 서버 종료시 큐에 남은 메시지를 전부 저장
+  @PreDestroy
+  public void flushOnShutdown() {
+    if(!enabled) return;
+    flush();
+    if(!retryMessages.isEmpty() || !queue.isEmpty()){
+      log.error("서버 종료전 저장하지 못한 채팅 메시지가 {}건 있습니다.", retryMessages.size() + queue.size());
+    }
+  }
+
+  // 큐를 비울때까지 batchSize 단위로 저장. 동시에 한 스레드만 flush 한다
+  public synchronized void flush() {
+    while(true){
+      List<PendingMessage> batch = new ArrayList<>(retryMessages);
+      synchronized (unsavedLock) {
+        retryMessages.clear();
+        queue.drainTo(batch, Math.max(0, batchSize - batch.size()));
+        unsaved = batch;
+      }
+      if(batch.isEmpty()) return;
+
+      boolean written = writeBatch(batch);
+      synchronized (unsavedLock) {
+        unsaved = List.copyOf(retryMessages);
+      }
+      if(!written) return; // DB 오류 -> 다음 주기에 재시도
+    }
+  }
+
+  private boolean writeBatch(List<PendingMessage> batch) {
+    try {
+      transactionTemplate.executeWithoutResult(status -> insertAndUpdateRooms(batch));
+      invalidateUnreadCounts(batch);
+      return true;
+    } catch (DataIntegrityViolationException e) {
+      // 배치중 일부 행이 문제라면 한건씩 저장하고, 문제가 되는 메시지만 버린다
+      log.warn("채팅 배치 저장 실패, 한건씩 다시 저장합니다. ({})", e.getMessage());
+      for (int i = 0; i < batch.size(); i++) {
+        PendingMessage message = batch.get(i);
+        try {
+          transactionTemplate.executeWithoutResult(status -> insertAndUpdateRooms(List.of(message)));
+          invalidateUnreadCounts(List.of(message));
+        } catch (DataIntegrityViolationException ex) {
+          log.error("채팅 메시지를 저장할 수 없어 버립니다. id = {}, roomId = {}", message.getId(), message.getRoomId(), ex);
+        } catch (DataAccessException ex) {
+          retryMessages.addAll(batch.subList(i, batch.size()));
+          log.error("채팅 메시지 저장 실패, 다음 flush 때 재시도합니다.", ex);
+          return false;
+        }
+      }
+      return true;
+    } catch (DataAccessException e) {
+      retryMessages.addAll(batch);
+      log.error("채팅 메시지 저장 실패, 다음 flush 때 재시도합니다. ({}건)", batch.size(), e);
+      return false;
+    }
+  }
+
+  // 저장된 메시지를 받은 멤버들의 배지는 이제 DB 값에 포함됐으므로 다시 읽게 한다
+  private void invalidateUnreadCounts(List<PendingMessage> saved) {
+    Set<Long> recipientIds = new HashSet<>();
+    saved.forEach(message -> recipientIds.addAll(message.getRecipientIds()));
+    recipientIds.forEach(chatUnreadCounter::invalidate);
+  }
+
+  private void insertAndUpdateRooms(List<PendingMessage> batch) {
+    // 1. 메시지 배치 INSERT
+    jdbcTemplate.batchUpdate(INSERT_MESSAGE, batch, batch.size(), (ps, message) -> {
+      Timestamp createdDate = Timestamp.valueOf(message.getCreatedDate());
+      ps.setLong(1, message.getId());
+      ps.setString(2, message.getType() == null ? null : message.getType().name());
+      ps.setLong(3, message.getRoomId());
+      ps.setLong(4, message.getMemberId());
+      ps.setObject(5, message.getToMemberId(), Types.BIGINT); // 단체 채팅방은 null
+      ps.setString(6, message.getMessage());
+      ps.setTimestamp(7, createdDate);
+      ps.setTimestamp(8, createdDate);
+    });
+
+    List<PendingMessage> chats = batch.stream().filter(message -> !message.isNotice()).toList();
+    if(chats.isEmpty()) return;
+
+    // 2. 방마다 가장 마지막 메시지로 한번만 UPDATE (큐에는 전송 순서대로 들어있음). 입장/퇴장 안내는 제외
+    Map<Long, PendingMessage> latestByRoom = new LinkedHashMap<>();
+    for (PendingMessage message : chats) {
+      latestByRoom.put(message.getRoomId(), message);
+    }
+    List<PendingMessage> latest = new ArrayList<>(latestByRoom.values());
+    jdbcTemplate.batchUpdate(UPDATE_ROOM_LATEST, latest, latest.size(), (ps, message) -> {
+      ps.setString(1, message.getMessage());
+      ps.setTimestamp(2, Timestamp.valueOf(message.getCreatedDate()));
+      ps.setLong(3, message.getRoomId());
+    });
+
+    // 3. 받는 사람들의 안읽은 메시지 수 증가 (큐에 있는 동안 이미 읽음 위치가 지나간 사람은 제외해야 하므로 메시지 단위)
+    jdbcTemplate.batchUpdate(INCREASE_UNREAD_COUNT, chats, chats.size(), (ps, message) -> {
+      ps.setLong(1, message.getRoomId());
+      ps.setLong(2, message.getMemberId());
+      ps.setLong(3, message.getId());
+    });
+  }
+
+  // 저장 대기중인 메시지 (ChatMessage 테이블의 한 행)
+  @Getter
+  @AllArgsConstructor
+  public static class PendingMessage {
+    private final Long id;
+    private final MessageType type;
+    private final Long roomId;
+    private final Long memberId;
+    private final Long toMemberId;
+    private final String message;
+    private final LocalDateTime createdDate;
+    private final boolean notice;          // 입장/퇴장 안내 (채팅방 마지막 메시지, 안읽은 수에 반영 X)
+    private final List<Long> recipientIds; // 안읽은 개수 배지를 갱신할 받는 사람들 (저장되지 않는 값)
+  }
+}
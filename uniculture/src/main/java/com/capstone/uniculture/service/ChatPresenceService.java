@@ -0,0 +1,132 @@
+package com.capstone.uniculture.service;
+
+import com.capstone.uniculture.dto.Message.PresenceDto;
+import com.capstone.uniculture.dto.Message.TypingDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 접속 상태 / 입력중 표시
+ * DB 에 저장하지 않고 세션 레지스트리와 메모리 상태만으로 STOMP 이벤트를 보낸다
+ * - 접속 상태 : 멤버의 첫 세션 연결 / 마지막 세션 종료시 /sub/chat/presence/{memberId} 로 전송
+ * - 입력중 : /pub/chat/{roomId}/typing 이 아무리 자주 와도 typing-interval-ms 마다 최대 한번만 /sub/chat/room/{roomId}/typing 으로 전송,
+ *           typing-ttl-ms 동안 입력이 없거나 메시지를 보내거나 연결이 끊기면 typing = false 전송
+ * 세션 레지스트리가 서버마다 따로 있으므로, 서버를 여러대 띄우면 각 서버에 연결된 세션 기준으로만 동작한다 (ChatSessionRegistry 참고)
+ */
+@Service
+public class ChatPresenceService {
+
+  private final ChatSessionRegistry chatSessionRegistry;
+  private final ChatRoomMemberCache chatRoomMemberCache;
+  private final ChatBroadcaster chatBroadcaster;
+  private final ChatUnreadCounter chatUnreadCounter;
+  private final long typingIntervalMs;
+  private final long typingTtlMs;
+
+  private final ConcurrentHashMap<TypingKey, TypingState> typingStates = new ConcurrentHashMap<>();
+
+  public ChatPresenceService(ChatSessionRegistry chatSessionRegistry,
+                             ChatRoomMemberCache chatRoomMemberCache,
+                             ChatBroadcaster chatBroadcaster,
+                             ChatUnreadCounter chatUnreadCounter,
+                             @Value("${chat.presence.typing-interval-ms:1000}") long typingIntervalMs,
+                             @Value("${chat.presence.typing-ttl-ms:5000}") long typingTtlMs) {
+    this.chatSessionRegistry = chatSessionRegistry;
+    this.chatRoomMemberCache = chatRoomMemberCache;
+    this.chatBroadcaster = chatBroadcaster;
+    this.chatUnreadCounter = chatUnreadCounter;
+    this.typingIntervalMs = typingIntervalMs;
+    this.typingTtlMs = typingTtlMs;
+  }
+
+  // 세션 연결. 이 멤버의 첫 세션이면 online 전송
+  public void connect(String sessionId, Long memberId) {
+    if(chatSessionRegistry.register(sessionId, memberId)){
+      sendPresence(memberId, true);
+    }
+  }
+
+  // 세션 종료. 마지막 세션이었으면 입력중 표시를 모두 끄고 안읽은 개수를 메모리에서 버린 뒤 offline 전송
+  public void disconnect(String sessionId) {
+    Long memberId = chatSessionRegistry.unregister(sessionId);
+    if(memberId == null || chatSessionRegistry.isOnline(memberId)) return;
+
+    for (TypingKey key : typingStates.keySet()) {
+      if(key.memberId().equals(memberId)) stopTyping(key.roomId(), memberId);
+    }
+    chatUnreadCounter.evict(memberId);
+    sendPresence(memberId, false);
+  }
+
+  // 채팅방 참여자들의 접속 상태 (참여자만 조회 가능)
+  public List<PresenceDto> findRoomPresence(Long roomId, Long memberId) {
+    if(!chatRoomMemberCache.isMember(roomId, memberId)){
+      throw new IllegalArgumentException("참여중인 채팅방이 아닙니다.");
+    }
+    return chatRoomMemberCache.getMemberIds(roomId).stream()
+            .map(id -> new PresenceDto(id, chatSessionRegistry.isOnline(id)))
+            .collect(Collectors.toList());
+  }
+
+  // 입력 이벤트. 마지막 전송 후 typing-interval-ms 가 지나지 않았으면 시간만 갱신하고 보내지 않는다
+  public void typing(Long roomId, Long memberId) {
+    if(!chatRoomMemberCache.isMember(roomId, memberId)) return;
+
+    long now = System.currentTimeMillis();
+    boolean[] send = new boolean[1];
+    typingStates.compute(new TypingKey(roomId, memberId), (key, state) -> {
+      if(state == null) state = new TypingState();
+      state.lastActivity = now;
+      if(now - state.lastSent >= typingIntervalMs){
+        state.lastSent = now;
+        send[0] = true;
+      }
+      return state;
+    });
+    if(send[0]) sendTyping(roomId, memberId, true);
+  }
+
+  // 입력중 표시 끄기 (메시지 전송, 연결 종료)
+  public void stopTyping(Long roomId, Long memberId) {
+    if(typingStates.remove(new TypingKey(roomId, memberId)) != null){
+      sendTyping(roomId, memberId, false);
+    }
+  }
+
+  // typing-ttl-ms 동안 입력이 없던 표시를 끈다
+  @Scheduled(fixedDelayString = "${chat.presence.typing-interval-ms:1000}")
+  public void expireTyping() {
+    long now = System.currentTimeMillis();
+    for (TypingKey key : typingStates.keySet()) {
+      boolean[] expired = new boolean[1];
+      typingStates.computeIfPresent(key, (k, state) -> {
+        expired[0] = now - state.lastActivity >= typingTtlMs;
+        return expired[0] ? null : state;
+      });
+      if(expired[0]) sendTyping(key.roomId(), key.memberId(), false);
+    }
+  }
+
+  private void sendPresence(Long memberId, boolean online) {
+    chatBroadcaster.broadcast(ChatBroadcaster.delivery(
+            new PresenceDto(memberId, online), "/sub/chat/presence/" + memberId));
+  }
+
+  private void sendTyping(Long roomId, Long memberId, boolean typing) {
+    chatBroadcaster.broadcast(ChatBroadcaster.delivery(
+            new TypingDto(roomId, memberId, typing), "/sub/chat/room/" + roomId + "/typing"));
+  }
+
+  private record TypingKey(Long roomId, Long memberId) {
+  }
+
+  private static class TypingState {
+    private long lastSent;     // 마지막으로 typing = true 를 보낸 시간
+    private long lastActivity; // 마지막 입력 이벤트 시간
+  }
+}
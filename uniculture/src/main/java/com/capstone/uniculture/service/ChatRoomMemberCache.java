@@ -0,0 +1,63 @@
+package com.capstone.uniculture.service;
+
+import com.capstone.uniculture.repository.ChatRoomMembershipRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 채팅방 참여자 id 캐시 (채팅방 id -> 멤버 id 집합)
+ * 메시지를 보낼때마다 참여 여부 확인과 /sub/chat/user/{id} fan-out 대상이 필요하므로, 방마다 한번만 조회해서 들고 있는다
+ * - 참여자가 바뀌면(생성, 나가기) evict 해서 다음 전송때 다시 조회한다
+ * - 크기 제한을 넘으면 통째로 비운다
+ * - evict 는 이 서버에서만 일어나므로, 서버를 여러대 띄우는 relay 모드(chat.broker.mode=relay)에서는 캐시하지 않고 매번 조회한다
+ *   (다른 서버에서 나가거나 초대된 멤버가 이 서버의 캐시에 남지 않도록)
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatRoomMemberCache {
+
+  private static final int MAX_CACHED_ROOMS = 100_000;
+
+  private final ChatRoomMembershipRepository chatRoomMembershipRepository;
+  private final ConcurrentHashMap<Long, Set<Long>> memberIdsByRoom = new ConcurrentHashMap<>();
+
+  @Value("${chat.broker.mode:simple}")
+  private String brokerMode;
+
+  // 채팅방 참여자 id 들 (수정 불가)
+  public Set<Long> getMemberIds(Long roomId) {
+    if("relay".equalsIgnoreCase(brokerMode)){
+      return Set.copyOf(chatRoomMembershipRepository.findMemberIdsByChatRoomId(roomId));
+    }
+    Set<Long> memberIds = memberIdsByRoom.get(roomId);
+    if(memberIds != null) return memberIds;
+
+    memberIds = Set.copyOf(chatRoomMembershipRepository.findMemberIdsByChatRoomId(roomId));
+    if(memberIdsByRoom.size() >= MAX_CACHED_ROOMS) memberIdsByRoom.clear();
+    memberIdsByRoom.put(roomId, memberIds);
+    return memberIds;
+  }
+
+  public boolean isMember(Long roomId, Long memberId) {
+    return getMemberIds(roomId).contains(memberId);
+  }
+
+  // 바로 지우고, 트랜잭션 안이면 커밋된 뒤에 한번 더 지운다 (커밋 전에 다른 요청이 예전 명단을 다시 읽어서 캐시할 수 있음)
+  public void evict(Long roomId) {
+    memberIdsByRoom.remove(roomId);
+    if(TransactionSynchronizationManager.isSynchronizationActive()){
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          memberIdsByRoom.remove(roomId);
+        }
+      });
+    }
+  }
+}
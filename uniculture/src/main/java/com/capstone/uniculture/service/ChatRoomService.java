@@ -11,12 +11,21 @@ import com.capstone.uniculture.repository.ChatRoomRepository;
 import com.capstone.uniculture.repository.MemberRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,7 +37,12 @@ public class ChatRoomService {
   private final ChatRoomRepository chatRoomRepository;
   private final ChatRoomMembershipRepository chatRoomMembershipRepository;
   private final ChatMessageRepository chatMessageRepository;
+  private final ChatRoomMemberCache chatRoomMemberCache;
+  private final PlatformTransactionManager transactionManager;
 
+  // 1:1 채팅방 캐시 (두 멤버 -> 채팅방 id)
+  private static final int MAX_CACHED_DUO_ROOMS = 100_000;
+  private final ConcurrentHashMap<MemberPair, Long> duoRoomCache = new ConcurrentHashMap<>();
 
   // Member 검색 메소드
   private Member findMember(Long memberId) {
@@ -50,60 +64,72 @@ public class ChatRoomService {
 
   // 사용자 속한 채팅방만 조회 (기본 채팅방 목록)
   public List<ChatRoomDTO> findRoomByUserId(Long userId) {
+      // 상대 닉네임, 마지막 메시지, 안읽은 메시지 수까지 쿼리 한번으로 가져온다
+      return chatRoomMembershipRepository.findRoomSummaries(userId);
+  }
 
-      List<ChatRoomDTO> chatRoomDTOList = new ArrayList<>();
-
-      // 1. chatRoomMembershipRepository 에서 유저가 속한 채팅방 검색
-      List<ChatRoom> chatRoomList = chatRoomRepository.findByMember1_Id(userId);
-
-      for (ChatRoom chatRoom : chatRoomList) {
-          System.out.println("chatRoom = " + chatRoom.getId());
-          ChatRoomDTO build = ChatRoomDTO.builder().id(chatRoom.getId())
-                  .username(chatRoom.getMember2().getNickname())
-                  .latestMessage(chatRoom.getLatestMessage())
-                  .latestMessageTime(chatRoom.getLatestMessageTime())
-                  .unreadCount(chatMessageRepository.countUnreadMessage(chatRoom.getId(), userId))
-                  .build();
-          chatRoomDTOList.add(build);
-      }
+  // 사용자 담아서 생성 (member1 = id 가 작은 쪽, member2 = 큰 쪽)
+  private ChatRoomIdResponseDto createChatRoomWithMember(Long memberId1, Long memberId2) {
 
-      List<ChatRoom> chatRoomList2 = chatRoomRepository.findByMember2_Id(userId);
-
-      for (ChatRoom chatRoom : chatRoomList2) {
-          System.out.println("chatRoom = " + chatRoom.getId());
-          ChatRoomDTO build = ChatRoomDTO.builder().id(chatRoom.getId())
-                  .username(chatRoom.getMember1().getNickname())
-                  .latestMessage(chatRoom.getLatestMessage())
-                  .latestMessageTime(chatRoom.getLatestMessageTime())
-                  .unreadCount(chatMessageRepository.countUnreadMessage(chatRoom.getId(), userId))
-                  .build();
-          chatRoomDTOList.add(build);
+      // 1. 생성될 멤버 2명 (프록시로만 참조, 상대방은 존재하는지만 확인)
+      if(!memberRepository.existsById(memberId2)){
+          throw new IllegalArgumentException("찾는 사용자가 존재하지 않습니다.");
       }
+      Member member1 = findMemberReference(memberId1);
+      Member member2 = findMemberReference(memberId2);
 
-      return chatRoomDTOList;
-  }
+      // 2. 채팅룸 생성
+      ChatRoom chatRoom = new ChatRoom(member1,member2);
 
-  // 사용자 담아서 생성
-  public ChatRoomIdResponseDto createChatRoomWithMember(Long memberId1, Long memberId2) {
+      // 3. ID를 뽑아내기전 DB에 저장을 하여 id 자동 생성을 유도함 (바로 INSERT 해서 중복이면 여기서 예외)
+      chatRoomRepository.saveAndFlush(chatRoom);
 
-      // 1. 생성될 멤버 2명찾기
-      Member member = memberRepository.findById(memberId1).get();
+      // 4. 참여정보 저장 (안읽은 메시지 수가 여기에 저장됨)
+      chatRoomMembershipRepository.saveAll(List.of(
+              new ChatRoomMembership(chatRoom, member1),
+              new ChatRoomMembership(chatRoom, member2)));
 
-      Member referenceById = memberRepository.getReferenceById(memberId1);
+      // 5. 만들어진 ID 반환, 이유는 채팅방에 입장했을때 ID 값이 필요하기 때문
+      return new ChatRoomIdResponseDto(chatRoom.getId());
+  }
 
-      Member member1 = findMemberReference(memberId1);
-      Member member2 = findMemberReference(memberId2);
+  // 단체 채팅방 생성 (스터디 모집 등). 만든 사람도 참여자로 들어간다
+  public ChatRoomIdResponseDto createGroupChatRoom(Long creatorId, CreateGroupChatRoomDTO createGroupChatRoomDTO) {
+      if(!StringUtils.hasText(createGroupChatRoomDTO.getName())){
+          throw new IllegalArgumentException("채팅방 이름을 입력해주세요.");
+      }
 
-      // 2. 채팅룸 생성
-      ChatRoom chatRoom = new ChatRoom(member1,member2);
+      // 1. 참여자 찾기 (중복 제거, 한번에 조회)
+      Set<Long> memberIds = new LinkedHashSet<>();
+      memberIds.add(creatorId);
+      if(createGroupChatRoomDTO.getMemberIds() != null) memberIds.addAll(createGroupChatRoomDTO.getMemberIds());
+      if(memberIds.size() < 2){
+          throw new IllegalArgumentException("채팅방에 초대할 사용자를 선택해주세요.");
+      }
+      List<Member> members = memberRepository.findAllById(memberIds);
+      if(members.size() != memberIds.size()){
+          throw new IllegalArgumentException("찾는 사용자가 존재하지 않습니다.");
+      }
 
-      // 3. ID를 뽑아내기전 DB에 저장을 하여 id 자동 생성을 유도함
+      // 2. 채팅방, 참여정보 저장
+      ChatRoom chatRoom = new ChatRoom(createGroupChatRoomDTO.getName(), members);
       chatRoomRepository.save(chatRoom);
+      chatRoomMembershipRepository.saveAll(members.stream()
+              .map(member -> new ChatRoomMembership(chatRoom, member))
+              .collect(Collectors.toList()));
 
-      // 4. 만들어진 ID 반환, 이유는 채팅방에 입장했을때 ID 값이 필요하기 때문
       return new ChatRoomIdResponseDto(chatRoom.getId());
   }
 
+  // 자동 번역 모드 켜기/끄기 (참여자만 가능, 채팅방 전체에 적용)
+  public String updateAutoTranslate(Long roomId, Long memberId, boolean enabled) {
+      if(!chatRoomMembershipRepository.existsByChatRoom_IdAndMember_Id(roomId, memberId)){
+          throw new IllegalArgumentException("사용자가 채팅방에 참여하지 않은 상태입니다");
+      }
+      findChatRoom(roomId).setAutoTranslate(enabled);
+      return enabled ? "자동 번역 켜짐" : "자동 번역 꺼짐";
+  }
+
     public List<ChatRoomMemberResponseDto> findAllRoomMember(Long roomId) {
 
       // 1. 방을 찾아서 현재 사용자가 그 채팅방에 참여상태인지 확인(보안)
@@ -122,17 +148,78 @@ public class ChatRoomService {
     }
 
 
+    /**
+     * 1:1 채팅방 찾기 / 없으면 생성
+     * 두 멤버를 (작은 id, 큰 id) 순서로 정렬해서 (member1_id, member2_id) 유니크 인덱스로 한번만 조회하고,
+     * 한번 찾은 방은 메모리 캐시에서 바로 돌려준다 (채팅방은 삭제되지 않으므로 무효화 X)
+     * 방을 나갔던 멤버는 참여정보만 지워졌으므로, 다시 찾을때 참여정보를 다시 만들어준다
+     * 동시에 두번 눌러서 둘다 INSERT 를 시도하면 한쪽은 유니크 제약에 걸리므로, 그때는 먼저 만들어진 방을 다시 조회한다
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ChatRoomIdResponseDto checkAndCreate(Long memberId1, Long memberId2) {
+      if(memberId1.equals(memberId2)){
+          throw new IllegalArgumentException("자기 자신과는 채팅방을 만들 수 없습니다.");
+      }
+      MemberPair pair = MemberPair.of(memberId1, memberId2);
+
+      // 1. 캐시 -> DB 순으로 확인
+      Long cached = duoRoomCache.get(pair);
+      if(cached != null) return new ChatRoomIdResponseDto(rejoinDuoRoom(pair, cached));
+
+      Optional<Long> exist = chatRoomRepository.findDuoRoomId(pair.min(), pair.max());
+      if(exist.isPresent()) return new ChatRoomIdResponseDto(rejoinDuoRoom(pair, cacheDuoRoom(pair, exist.get())));
+
+      // 2. 여기까지 온거면 둘 사이의 채팅방이 없다는 거니깐 만들어주자 (별도 트랜잭션)
+      try {
+          ChatRoomIdResponseDto created = newTransaction().execute(status -> createChatRoomWithMember(pair.min(), pair.max()));
+          cacheDuoRoom(pair, created.getChatRoomId());
+          return created;
+      } catch (DataIntegrityViolationException e) {
+          // 3. 다른 요청이 먼저 만들었음
+          Long roomId = chatRoomRepository.findDuoRoomId(pair.min(), pair.max()).orElseThrow(() -> e);
+          return new ChatRoomIdResponseDto(cacheDuoRoom(pair, roomId));
+      }
+    }
 
-      // 1. 한쪽 존재확인
-      Optional<Long> exist = chatRoomRepository.findByMember1_IdAndMember2_Id(memberId1, memberId2);
-      if(exist.isPresent()) return new ChatRoomIdResponseDto(exist.get());
+    private Long cacheDuoRoom(MemberPair pair, Long roomId) {
+      // 크기 제한을 넘으면 통째로 비운다 (다시 조회하면 인덱스 한번으로 채워짐)
+      if(duoRoomCache.size() >= MAX_CACHED_DUO_ROOMS) duoRoomCache.clear();
+      duoRoomCache.put(pair, roomId);
+      return roomId;
+    }
 
-      // 2. 반대쪽 존재확인
-      Optional<Long> exist2 = chatRoomRepository.findByMember1_IdAndMember2_Id(memberId2, memberId1);
-      if(exist2.isPresent()) return new ChatRoomIdResponseDto(exist2.get());
+    // 1:1 채팅방을 나간 멤버가 있으면 다시 참여시킨다 (참여자 확인은 ChatRoomMemberCache 로 하므로 보통은 쿼리 X)
+    private Long rejoinDuoRoom(MemberPair pair, Long roomId) {
+      Set<Long> memberIds = chatRoomMemberCache.getMemberIds(roomId);
+      List<Long> missing = List.of(pair.min(), pair.max()).stream()
+              .filter(memberId -> !memberIds.contains(memberId))
+              .toList();
+      if(missing.isEmpty()) return roomId;
+
+      try {
+          newTransaction().executeWithoutResult(status -> {
+              ChatRoom chatRoom = chatRoomRepository.getReferenceById(roomId);
+              chatRoomMembershipRepository.saveAllAndFlush(missing.stream()
+                      .map(memberId -> new ChatRoomMembership(chatRoom, findMemberReference(memberId)))
+                      .toList());
+          });
+      } catch (DataIntegrityViolationException e) {
+          // 동시에 들어온 다른 요청이 먼저 다시 참여시켰음
+      }
+      chatRoomMemberCache.evict(roomId);
+      return roomId;
+    }
 
-      // 3. 여기까지 온거면 둘 사이의 채팅방이 없다는 거니깐 만들어주자
-      return createChatRoomWithMember(memberId1, memberId2);
+    private TransactionTemplate newTransaction() {
+      TransactionTemplate template = new TransactionTemplate(transactionManager);
+      template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+      return template;
+    }
+
+    // 순서와 상관없는 1:1 채팅방 키 (min, max)
+    private record MemberPair(Long min, Long max) {
+      static MemberPair of(Long memberId1, Long memberId2) {
+        return memberId1 < memberId2 ? new MemberPair(memberId1, memberId2) : new MemberPair(memberId2, memberId1);
+      }
     }
 }
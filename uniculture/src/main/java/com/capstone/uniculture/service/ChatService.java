@@ -1,12 +1,17 @@
 package com.capstone.uniculture.service;
 
 import com.capstone.uniculture.config.SecurityUtil;
+import com.capstone.uniculture.dto.Message.ChatHistoryResponseDto;
 import com.capstone.uniculture.dto.Message.ChatMessageDTO;
+import com.capstone.uniculture.dto.Message.ChatSendResultDto;
 import com.capstone.uniculture.dto.Message.MessageResponseDto;
+import com.capstone.uniculture.dto.Message.MessageSearchResponseDto;
+import com.capstone.uniculture.dto.Message.ReadReceiptDto;
 import com.capstone.uniculture.entity.Member.Member;
 import com.capstone.uniculture.entity.Message.ChatMessage;
 import com.capstone.uniculture.entity.Message.ChatRoom;
 import com.capstone.uniculture.entity.Message.ChatRoomMembership;
+import com.capstone.uniculture.entity.Message.ChatRoomType;
 import com.capstone.uniculture.entity.Message.MessageType;
 import com.capstone.uniculture.repository.ChatMessageRepository;
 import com.capstone.uniculture.repository.ChatRoomMembershipRepository;
@@ -14,12 +19,24 @@ import com.capstone.uniculture.repository.ChatRoomRepository;
 import com.capstone.uniculture.repository.MemberRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,7 +49,23 @@ public class ChatService {
   private final ChatMessageRepository chatMessageRepository;
   private final MemberRepository memberRepository;
   private final ChatRoomMembershipRepository chatRoomMembershipRepository;
-
+  private final ChatMessageWriteBehindBuffer chatMessageWriteBehindBuffer;
+  private final ChatMessageIdGenerator chatMessageIdGenerator;
+  private final RecentChatMessageCache recentChatMessageCache;
+  private final ChatMessageSearchIndex chatMessageSearchIndex;
+  private final ChatBroadcaster chatBroadcaster;
+  private final ChatRoomMemberCache chatRoomMemberCache;
+  private final ChatTranslationService chatTranslationService;
+  private final ChatMessageArchive chatMessageArchive;
+  private final ChatMessageDeduplicator chatMessageDeduplicator;
+  private final ChatUnreadCounter chatUnreadCounter;
+
+  // 채팅 내역 한 페이지 기본 크기 / 최대 크기
+  private static final int DEFAULT_HISTORY_SIZE = 50;
+  private static final int MAX_HISTORY_SIZE = 100;
+  private static final int MAX_CLIENT_MESSAGE_ID_LENGTH = 64;
+  // 전체 채팅방 검색시 검색할 최대 채팅방 수
+  private static final int MAX_SEARCH_ROOMS = 20;
 
   private ChatRoom findChatRoom(Long chatRoomId) {
     return chatRoomRepository.findById(chatRoomId)
@@ -44,38 +77,124 @@ public class ChatService {
             .orElseThrow(()->new IllegalArgumentException("찾는 사용자가 존재하지 않습니다."));
   }
 
-  //메시지 불러오기
-  public List<MessageResponseDto> findMessageHistory(Long roomId){
-    // 1. 채팅방 아이디를 가지고 전체 메시지를 불러온다 -> 데이터양이 많아져 성능저하시 추후 NoSQL 변경 가능성
-    List<ChatMessage> messages = chatMessageRepository.findByChatRoom_Id(roomId);
+  //메시지 불러오기 (커서 기반 페이징)
+  public ChatHistoryResponseDto findMessageHistory(Long roomId, Long before, Long after, Integer size){
+    if(before != null && after != null){
+      throw new IllegalArgumentException("before 와 after 는 동시에 사용할 수 없습니다.");
+    }
+    int pageSize = (size == null || size <= 0) ? DEFAULT_HISTORY_SIZE : Math.min(size, MAX_HISTORY_SIZE);
     Long memberId = SecurityUtil.getCurrentMemberId();
 
-    List<MessageResponseDto> collect = messages.stream()
-            .map(MessageResponseDto::fromEntity)
-            .collect(Collectors.toList());
+    // 1. 한개 더 가져와서 다음 페이지가 있는지 판단 (COUNT 쿼리 X), 응답은 항상 오래된 메시지 -> 최신 메시지 순
+    boolean forward = after != null;
+    ChatHistoryResponseDto history;
+    if(forward) history = toHistory(loadAfter(roomId, after, pageSize + 1), pageSize, true);
+    else if(before != null) history = toHistory(loadBefore(roomId, before, pageSize + 1), pageSize, false);
+    else history = findLatestPage(roomId, pageSize);
+
+    List<MessageResponseDto> messages = history.getMessages();
+    if(messages.isEmpty()) return history;
 
-    chatMessageRepository.readChatMessage(roomId,memberId);
+    // 2. 이번에 내려준 가장 최신 메시지까지 읽음 처리 (읽음 위치 한 행만 UPDATE)
+    markAsRead(memberId, roomId, messages.get(messages.size() - 1).getChatMessageId());
 
-    return collect;
+    return history;
   }
 
-  // 입장시 채팅방에 참여자를 추가해주고, 입장 안내를 날려주는 메소드
-  public MessageResponseDto enterChatroom(Long senderId, Long roomId){
+  // 가장 최근 페이지는 최근 메시지 캐시에서 먼저 찾고, 없으면 DB 에서 캐시 크기만큼 읽어서 캐시를 채운다
+  private ChatHistoryResponseDto findLatestPage(Long roomId, int pageSize) {
+    ChatHistoryResponseDto cached = recentChatMessageCache.findLatest(roomId, pageSize);
+    if(cached != null) return cached;
 
-    Member member = findMember(senderId);
-    ChatRoom chatRoom = findChatRoom(roomId);
+    int loadSize = recentChatMessageCache.isEnabled()
+            ? Math.max(pageSize, recentChatMessageCache.getMessagesPerRoom()) : pageSize;
+    ChatHistoryResponseDto loaded = toHistory(loadBefore(roomId, null, loadSize + 1), loadSize, false);
+    recentChatMessageCache.put(roomId, loaded.getMessages(), !loaded.getHasNext());
 
+    return ChatHistoryResponseDto.latestOf(loaded.getMessages(), pageSize, loaded.getHasNext());
+  }
 
-    ChatMessage chatMessage = ChatMessage.builder()
-            .type(MessageType.ENTER)
-            .message(member.getNickname() + "님이 입장하셨습니다.")
-            .chatRoom(chatRoom)
-            .member(member)
+  /**
+   * before 보다 오래된 메시지 limit 개 (id 내림차순, before 가 null 이면 가장 최신부터)
+   * DB 에 남은 메시지로 모자라면 보관소(ChatMessageArchive)에서 이어서 읽는다 (보관된 메시지는 항상 DB 의 메시지보다 오래됨)
+   */
+  private List<MessageResponseDto> loadBefore(Long roomId, Long before, int limit) {
+    List<ChatMessage> hot = before == null
+            ? chatMessageRepository.findLatestPage(roomId, PageRequest.of(0, limit))
+            : chatMessageRepository.findPageBefore(roomId, before, PageRequest.of(0, limit));
+    List<MessageResponseDto> messages = hot.stream()
+            .map(MessageResponseDto::fromEntity)
+            .collect(Collectors.toCollection(ArrayList::new));
+    if(messages.size() < limit){
+      Long oldest = messages.isEmpty() ? before : messages.get(messages.size() - 1).getChatMessageId();
+      messages.addAll(chatMessageArchive.findBefore(roomId, oldest, limit - messages.size()));
+    }
+    return messages;
+  }
+
+  // after 보다 최신 메시지 limit 개 (id 오름차순). 보관소에 있는 구간을 먼저 읽고 나머지는 DB 에서
+  private List<MessageResponseDto> loadAfter(Long roomId, Long after, int limit) {
+    List<MessageResponseDto> messages = new ArrayList<>(chatMessageArchive.findAfter(roomId, after, limit));
+    if(messages.size() < limit){
+      Long from = messages.isEmpty() ? after : messages.get(messages.size() - 1).getChatMessageId();
+      chatMessageRepository.findPageAfter(roomId, from, PageRequest.of(0, limit - messages.size())).stream()
+              .map(MessageResponseDto::fromEntity)
+              .forEach(messages::add);
+    }
+    return messages;
+  }
+
+  // pageSize + 1 개를 조회한 결과로 한 페이지 생성 (forward 면 id 오름차순, 아니면 내림차순으로 조회된 결과)
+  private ChatHistoryResponseDto toHistory(List<MessageResponseDto> messages, int pageSize, boolean forward) {
+    boolean hasNext = messages.size() > pageSize;
+    if(hasNext) messages = messages.subList(0, pageSize);
+
+    List<MessageResponseDto> collect = new ArrayList<>(messages);
+    if(!forward) Collections.reverse(collect);
+
+    Long nextCursor = null;
+    if(hasNext) nextCursor = forward ? collect.get(collect.size() - 1).getChatMessageId() : collect.get(0).getChatMessageId();
+
+    return ChatHistoryResponseDto.builder()
+            .messages(collect)
+            .hasNext(hasNext)
+            .nextCursor(nextCursor)
             .build();
+  }
 
-    chatMessageRepository.save(chatMessage);
+  /**
+   * 읽음 위치를 messageId 로 옮기고, 옮겨졌으면 커밋된 뒤 채팅방에 읽음 확인을 보낸다
+   * 이미 그 이후까지 읽었거나 참여중인 방이 아니면 아무것도 하지 않는다
+   * messageId 는 채팅방의 마지막 메시지 id 를 넘지 못한다 (advanceReadWatermark)
+   */
+  public void markAsRead(Long memberId, Long roomId, Long messageId) {
+    if(messageId == null) return;
+    long issuedUpTo = chatMessageWriteBehindBuffer.isEnabled() ? chatMessageIdGenerator.maxIssuedId() : 0L;
+    int updated = chatRoomMembershipRepository.advanceReadWatermark(roomId, memberId, messageId, issuedUpTo);
+    if(updated == 0) return;
+
+    Long lastReadMessageId = chatRoomMembershipRepository.findLastReadMessageId(roomId, memberId);
+    ReadReceiptDto receipt = ReadReceiptDto.builder()
+            .roomId(roomId)
+            .memberId(memberId)
+            .lastReadMessageId(lastReadMessageId)
+            .build();
+    afterCommit(() -> {
+      chatUnreadCounter.invalidate(memberId);
+      chatBroadcaster.broadcast(ChatBroadcaster.delivery(receipt, "/sub/chat/room/" + roomId + "/read"));
+    });
+  }
 
-    return MessageResponseDto.fromEntity(chatMessage);
+  // 입장시 채팅방에 참여자를 추가해주고, 입장 안내를 날려주는 메소드
+  public MessageResponseDto enterChatroom(Long senderId, Long roomId){
+
+    Member member = findMember(senderId);
+    findChatRoom(roomId);
+
+    MessageResponseDto messageResponseDto = persistMessage(roomId, member, null, MessageType.ENTER,
+            member.getNickname() + "님이 입장하셨습니다.", List.of(), true);
+    afterCommit(() -> recentChatMessageCache.append(roomId, messageResponseDto));
+    return messageResponseDto;
   }
 
   // 퇴장시 채팅방에서 참여자를 제외시키고, 퇴장 안내를 날려주는 메소드
@@ -88,17 +207,13 @@ public class ChatService {
             () -> new IllegalArgumentException("채팅방에 사용자가 존재하지 않습니다")
     );
     chatRoomMembershipRepository.delete(chatRoomMembership);
+    chatRoomMemberCache.evict(roomId);
+    afterCommit(() -> chatUnreadCounter.invalidate(senderId));
 
-    ChatMessage chatMessage = ChatMessage.builder()
-            .type(MessageType.ENTER)
-            .message(member.getNickname() + "님이 입장하셨습니다.")
-            .chatRoom(chatRoom)
-            .member(member)
-            .build();
-
-    chatMessageRepository.save(chatMessage);
-
-    return MessageResponseDto.fromEntity(chatMessage);
+    MessageResponseDto messageResponseDto = persistMessage(roomId, member, null, MessageType.ENTER,
+            member.getNickname() + "님이 입장하셨습니다.", List.of(), true);
+    afterCommit(() -> recentChatMessageCache.append(roomId, messageResponseDto));
+    return messageResponseDto;
   }
 
   // 메시지 보내기 -> 받아서 저장하기 메소드
@@ -106,20 +221,10 @@ public class ChatService {
     // 1. 채팅이 저장될 채팅방, 보내는 멤버 찾기
     ChatRoom chatRoom = findChatRoom(chatMessageDTO.getRoomId());
 
-    System.out.println("저장할 사람 아이디는? = " + writerId);
     Member member = findMember(writerId);
 
-    // 2. DTO -> Entity 변환하여, ChatMessage 객체 생성
-    // 시간은 생성될때 JPA Auditing 에 의해 자동으로 생성된다
-    ChatMessage chatMessage = ChatMessageDTO.toChatMessage(chatMessageDTO);
-    chatMessage.setChatRoom(chatRoom);
-    chatMessage.setMember(member);
-
-
-
-    // 3. chatMessageRepository 에 ChatMessage 객체 저장
-    chatMessageRepository.save(chatMessage);    //데이터베이스에 저장
-    chatRoom.addMessage(chatMessage);
+    // 2~3. 메시지 저장 (write-behind 모드면 큐에 넣음)
+    persistMessage(chatRoom.getId(), member, null, chatMessageDTO.getType(), chatMessageDTO.getMessage(), List.of(), false);
 
     // 4. Entity -> DTO 변환하여 Return
     chatMessageDTO.setSender(member.getNickname());
@@ -127,55 +232,238 @@ public class ChatService {
     return chatMessageDTO;
   }
 
-  public List<Object> sendMessage2(Long writerId, ChatMessageDTO chatMessageDTO) {
-    // 1. 채팅이 저장될 채팅방, 보내는 멤버 찾기
-    ChatRoom chatRoom = findChatRoom(chatMessageDTO.getRoomId());
+  /**
+   * 메시지 저장 + 전송할 DTO 생성
+   * @return 채팅방/유저 토픽으로 보낼 DTO 와 받을 참여자, 중복 전송이면 duplicate
+   */
+  public ChatSendResultDto sendMessage2(Long writerId, ChatMessageDTO chatMessageDTO) {
+    // 0. 재연결 후 다시 보낸 메시지면(같은 clientMessageId) 저장/전송하지 않고 duplicate 반환
+    //    저장이 실패(롤백)하면 기록을 지워서 다음 재전송은 받는다
+    String clientMessageId = chatMessageDTO.getClientMessageId();
+    if(clientMessageId != null){
+      if(clientMessageId.length() > MAX_CLIENT_MESSAGE_ID_LENGTH){
+        throw new IllegalArgumentException("clientMessageId 는 " + MAX_CLIENT_MESSAGE_ID_LENGTH + "자 이하로 보내주세요.");
+      }
+      Long roomId = chatMessageDTO.getRoomId();
+      if(!chatMessageDeduplicator.markIfFirst(roomId, writerId, clientMessageId)) return ChatSendResultDto.duplicate();
+      afterRollback(() -> chatMessageDeduplicator.forget(roomId, writerId, clientMessageId));
+    }
+
+    // 1. 채팅이 저장될 채팅방(필요한 컬럼만), 보내는 멤버 찾기 (참여자 명단은 캐시에서)
+    ChatRoomRepository.RoomHeader chatRoom = chatRoomRepository.findHeaderById(chatMessageDTO.getRoomId())
+            .orElseThrow(() -> new IllegalArgumentException("채팅방을 찾을 수 없습니다."));
+    Set<Long> memberIds = chatRoomMemberCache.getMemberIds(chatRoom.getId());
+    if(!memberIds.contains(writerId)){
+      throw new IllegalArgumentException("참여중인 채팅방이 아닙니다.");
+    }
 
-    System.out.println("저장할 사람 아이디는? = " + writerId);
     Member member = findMember(writerId);
+    // 단체 채팅방은 받는 사람이 한명이 아니므로 null
+    Long toMemberId = null;
+    if(chatRoom.getType() != ChatRoomType.MULTI){
+      toMemberId = chatRoom.getMember1Id().equals(writerId) ? chatRoom.getMember2Id() : chatRoom.getMember1Id();
+    }
 
-    // 2. DTO -> Entity 변환하여, ChatMessage 객체 생성
-    // 시간은 생성될때 JPA Auditing 에 의해 자동으로 생성된다
-    ChatMessage chatMessage = ChatMessageDTO.toChatMessage(chatMessageDTO);
-    chatMessage.setChatRoom(chatRoom);
-    chatMessage.setMember(member);
+    List<Long> recipientIds = memberIds.stream()
+            .filter(memberId -> !memberId.equals(writerId))
+            .collect(Collectors.toList());
+
+    // 2~4. 메시지 저장 후 채팅방 id 로 응답해줄 DTO 생성
+    MessageResponseDto messageResponseDto = persistMessage(chatRoom.getId(), member, toMemberId,
+            chatMessageDTO.getType(), chatMessageDTO.getMessage(), recipientIds, false);
+
+    // 5. 유저 id 로 응답해줄 DTO
+    chatMessageDTO.setSender(member.getNickname());
+    chatMessageDTO.setReceiver(toMemberId);
+    chatMessageDTO.setCreatedDate(messageResponseDto.getCreateDate());
+
+    // 6. 검색 색인에 추가, 최근 메시지 캐시에는 커밋된 뒤 추가 (롤백된 메시지가 첫 페이지에 남지 않도록)
+    afterCommit(() -> recentChatMessageCache.append(chatRoom.getId(), messageResponseDto));
+    chatMessageSearchIndex.index(chatRoom.getId(), messageResponseDto.getChatMessageId(), messageResponseDto.getMessage());
 
-    if(chatRoom.getMember1().getId() == writerId) chatMessage.setToMember(chatRoom.getMember2());
-    else chatMessage.setToMember(chatRoom.getMember1());
+    // 7. 받는 사람들의 안읽은 개수 배지 +1 (커밋된 뒤)
+    //    write-behind 모드는 DB 의 unread_count 가 flush 때 바뀌므로 flusher 가 저장 후 배지를 다시 읽게 한다
+    if(!chatMessageWriteBehindBuffer.isEnabled()){
+      afterCommit(() -> chatUnreadCounter.increment(recipientIds));
+    }
+
+    // 8. 자동 번역 모드면 커밋된 뒤 받는 사람 언어로 번역해서 따로 전송 (비동기, 원문 전송은 기다리지 않음)
+    if(Boolean.TRUE.equals(chatRoom.getAutoTranslate()) && chatMessageDTO.getType() != MessageType.ENTER){
+      afterCommit(() -> chatTranslationService.translateAndSend(chatRoom.getId(), messageResponseDto.getChatMessageId(),
+              messageResponseDto.getMessage(), writerId, memberIds));
+    }
+
+    return ChatSendResultDto.builder()
+            .roomMessage(messageResponseDto)
+            .userMessage(chatMessageDTO)
+            .memberIds(memberIds)
+            .build();
+  }
+
+  // 트랜잭션 안이면 커밋된 뒤에, 아니면 바로 실행
+  private static void afterCommit(Runnable task) {
+    if(!TransactionSynchronizationManager.isSynchronizationActive()){
+      task.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        task.run();
+      }
+    });
+  }
+
+  // 트랜잭션이 커밋되지 않고 끝나면 실행
+  private static void afterRollback(Runnable task) {
+    if(!TransactionSynchronizationManager.isSynchronizationActive()) return;
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if(status != STATUS_COMMITTED) task.run();
+      }
+    });
+  }
+
+  /**
+   * chat_message 에 메시지 한 행 추가 (모든 메시지 저장은 여기로)
+   * write-behind 모드면 입장/퇴장 안내까지 전부 id 생성기로 id 를 발급해서 큐에 넣는다
+   * IDENTITY id 와 섞이면 id 가 시간순이 아니게 되고 (커서 페이징, 읽음 위치), MySQL 에서는 auto_increment 와 겹칠 수 있으므로
+   * notice(입장/퇴장 안내)면 채팅방 마지막 메시지와 안읽은 메시지 수는 바꾸지 않는다
+   */
+  private MessageResponseDto persistMessage(Long roomId, Member member, Long toMemberId, MessageType type, String message,
+                                            List<Long> recipientIds, boolean notice) {
+    if(chatMessageWriteBehindBuffer.isEnabled()){
+      return enqueueMessage(roomId, member, toMemberId, type, message, recipientIds, notice);
+    }
+    return saveMessage(roomId, member, toMemberId, type, message, notice);
+  }
+
+  // 바로 저장 (기본 모드)
+  private MessageResponseDto saveMessage(Long roomId, Member member, Long toMemberId, MessageType type, String message,
+                                         boolean notice) {
+    // 2. ChatMessage 객체 생성 (채팅방/받는 사람은 FK 만 필요하므로 조회하지 않는 프록시)
+    // 시간은 생성될때 JPA Auditing 에 의해 자동으로 생성된다
+    ChatMessage chatMessage = ChatMessage.builder()
+            .type(type)
+            .message(message)
+            .chatRoom(chatRoomRepository.getReferenceById(roomId))
+            .member(member)
+            .build();
+    chatMessage.setToMember(toMemberId == null ? null : memberRepository.getReferenceById(toMemberId));
 
     // 3. chatMessageRepository 에 ChatMessage 객체 저장
     chatMessageRepository.save(chatMessage);    //데이터베이스에 저장
 
-    chatRoom.addMessage(chatMessage); // update 쿼리 나가야함
+    if(!notice){
+      updateLatestMessage(roomId, chatMessage);
+      chatRoomMembershipRepository.increaseUnreadCount(roomId, member.getId(), chatMessage.getId());
+    }
 
     // 4. 채팅방 id 로 응답해줄 DTO
-    MessageResponseDto messageResponseDto = MessageResponseDto.fromEntity(chatMessage);
+    return MessageResponseDto.fromEntity(chatMessage);
+  }
 
-    // 5. 유저 id 로 응답해줄 DTO
-    chatMessageDTO.setSender(member.getNickname());
-    if(chatRoom.getMember1().getId() == writerId){
-      chatMessageDTO.setReceiver(chatRoom.getMember2().getId());
+  // 채팅방 목록의 마지막 메시지 갱신 (ChatRoom 을 조회하지 않고 UPDATE 한번)
+  private void updateLatestMessage(Long roomId, ChatMessage chatMessage) {
+    LocalDateTime time = chatMessage.getCreatedDate() != null ? chatMessage.getCreatedDate() : LocalDateTime.now();
+    chatRoomRepository.updateLatestMessage(roomId, chatMessage.getMessage(), time);
+  }
+
+  // write-behind 모드 : id 를 직접 발급해서 큐에 넣기만 하고, 실제 INSERT 와 채팅방/안읽은 수 갱신은 flusher 가 배치로 처리
+  private MessageResponseDto enqueueMessage(Long roomId, Member member, Long toMemberId, MessageType type, String message,
+                                            List<Long> recipientIds, boolean notice) {
+    Long messageId = chatMessageIdGenerator.nextId();
+    LocalDateTime now = LocalDateTime.now();
+
+    chatMessageWriteBehindBuffer.enqueue(new ChatMessageWriteBehindBuffer.PendingMessage(
+            messageId, type, roomId, member.getId(), toMemberId, message, now, notice, recipientIds));
+
+    return MessageResponseDto.builder()
+            .chatMessageId(messageId)
+            .messageType(type)
+            .sender(member.getNickname())
+            .message(message)
+            .createDate(now)
+            .build();
+  }
+
+  /**
+   * 채팅방에서 키워드로 메시지 찾기 (최신순 페이징)
+   * roomId 가 없으면 내가 참여중인 채팅방 중 최근에 메시지가 온 MAX_SEARCH_ROOMS 개의 방에서 찾는다 (색인이 없는 방은 검색때 만들어지므로)
+   * LIKE 검색 대신 채팅방별 역색인(ChatMessageSearchIndex)에서 메시지 id 를 찾고, 해당 페이지의 메시지만 조회
+   * write-behind 큐에 있는 아직 저장되지 않은 메시지는 큐에서 꺼내서 보여준다 (검색중에 DB 에 쓰지 않음)
+   */
+  @Transactional(readOnly = true)
+  public Page<MessageSearchResponseDto> findMessageByKeyword(String keyword, Long roomId, Pageable pageable) {
+    Long memberId = SecurityUtil.getCurrentMemberId();
+
+    List<Long> roomIds;
+    if(roomId != null){
+      if(!chatRoomMembershipRepository.existsByChatRoom_IdAndMember_Id(roomId, memberId)){
+        throw new IllegalArgumentException("참여중인 채팅방이 아닙니다.");
+      }
+      roomIds = List.of(roomId);
     }
-    else{
-      chatMessageDTO.setReceiver(chatRoom.getMember1().getId());
+    else roomIds = chatRoomMembershipRepository.findRecentChatRoomIdsByMemberId(memberId, PageRequest.of(0, MAX_SEARCH_ROOMS));
+
+    // 1. 방마다 색인에서 찾은 메시지 id 를 모아서 최신순 정렬
+    Map<Long, Long> roomByMessageId = new HashMap<>();
+    List<Long> hitIds = new ArrayList<>();
+    for (Long id : roomIds) {
+      for (long messageId : chatMessageSearchIndex.search(id, keyword)) {
+        roomByMessageId.put(messageId, id);
+        hitIds.add(messageId);
+      }
     }
-    chatMessageDTO.setCreatedDate(LocalDateTime.now());
-
-    List<Object> lists = new ArrayList<>();
-    lists.add(messageResponseDto);
-    lists.add(chatMessageDTO);
+    hitIds.sort(Comparator.reverseOrder());
+
+    // 2. 요청한 페이지의 메시지만 조회
+    int from = (int) Math.min(pageable.getOffset(), hitIds.size());
+    int to = Math.min(from + pageable.getPageSize(), hitIds.size());
+    List<Long> pageIds = hitIds.subList(from, to);
+    if(pageIds.isEmpty()) return new PageImpl<>(Collections.emptyList(), pageable, hitIds.size());
+
+    // 저장 대기중인 메시지를 먼저 읽어둬야 그 사이에 저장된 메시지는 DB 에서 찾을 수 있다
+    Map<Long, MessageSearchResponseDto> unsaved = chatMessageWriteBehindBuffer.isEnabled()
+            ? findUnsavedMessages(pageIds) : Map.of();
+    Map<Long, MessageSearchResponseDto> messages = new HashMap<>(unsaved);
+    chatMessageRepository.findAllWithMemberByIdIn(pageIds)
+            .forEach(message -> messages.put(message.getId(), MessageSearchResponseDto.fromEntity(roomByMessageId.get(message.getId()), message)));
+    List<MessageSearchResponseDto> content = pageIds.stream()
+            .map(messages::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
 
-    return lists;
+    return new PageImpl<>(content, pageable, hitIds.size());
   }
 
-  //채팅방에서 키워드로 메시지 찾기
-  public ChatMessageDTO findMessageByKeyword(String keyword) {
-    return null;
+  // write-behind 큐에 있는 메시지 중 ids 에 해당하는 것 (보낸 사람 닉네임은 한번에 조회)
+  private Map<Long, MessageSearchResponseDto> findUnsavedMessages(List<Long> ids) {
+    Set<Long> idSet = Set.copyOf(ids);
+    List<ChatMessageWriteBehindBuffer.PendingMessage> pending = chatMessageWriteBehindBuffer.getUnsaved().stream()
+            .filter(message -> idSet.contains(message.getId()))
+            .toList();
+    if(pending.isEmpty()) return Map.of();
+
+    Map<Long, String> nicknames = memberRepository.findNicknamesByIdIn(
+                    pending.stream().map(ChatMessageWriteBehindBuffer.PendingMessage::getMemberId).collect(Collectors.toSet())).stream()
+            .collect(Collectors.toMap(MemberRepository.MemberNickname::getId, MemberRepository.MemberNickname::getNickname));
+    return pending.stream().collect(Collectors.toMap(ChatMessageWriteBehindBuffer.PendingMessage::getId,
+            message -> MessageSearchResponseDto.builder()
+                    .roomId(message.getRoomId())
+                    .chatMessageId(message.getId())
+                    .sender(nicknames.get(message.getMemberId()))
+                    .message(message.getMessage())
+                    .createDate(message.getCreatedDate())
+                    .build(),
+            (a, b) -> a));
   }
 
+  // 안읽은 채팅 전체 개수 (메모리 값, 이후 변경은 /sub/chat/user/{id} 로 전송됨)
   public Long unreadMessageCount() {
     Long memberId = SecurityUtil.getCurrentMemberId();
-    return chatMessageRepository.countChatMessageByMember_Id(memberId);
+    return chatUnreadCounter.getUnreadCount(memberId);
   }
 
 }
@@ -0,0 +1,172 @@
+package com.capstone.uniculture.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WebSocket 세션 상태 추적
+ * - 클라이언트가 마지막으로 보낸 프레임(heartbeat 포함) 시간 -> idle-timeout-ms 동안 아무것도 안보낸 세션은 서버가 끊는다
+ *   (heartbeat 를 협상하지 않은 클라이언트나 relay 모드처럼 simple broker 의 heartbeat 검사가 없는 경우의 안전장치)
+ * - 세션별 구독 수, 아직 전송되지 않은 outbound 프레임 수/바이트 -> 세션당 메모리 추정치
+ * 세션 하나의 고정 비용은 WebSocket/STOMP 세션 객체와 컨테이너 버퍼를 합친 대략치이므로, 실측(힙 덤프)으로 보정해서 쓸 것
+ */
+@Slf4j
+@Component
+public class ChatSessionMonitor {
+
+  // 세션 하나의 고정 비용 (WebSocket 세션, 전송 decorator, STOMP 디코더 버퍼, 컨테이너 읽기 버퍼 등) 대략치
+  private static final long SESSION_BASE_BYTES = 16 * 1024;
+  // 구독 하나의 비용 (브로커 구독 레지스트리 엔트리, destination 문자열 등) 대략치
+  private static final long SUBSCRIPTION_BYTES = 512;
+
+  private final long idleTimeoutMs;
+  private final ConcurrentHashMap<String, SessionStats> sessions = new ConcurrentHashMap<>();
+  private final ChannelInterceptor inboundInterceptor = new InboundInterceptor();
+  private final ChannelInterceptor outboundInterceptor = new OutboundInterceptor();
+
+  public ChatSessionMonitor(@Value("${chat.websocket.idle-timeout-ms:300000}") long idleTimeoutMs,
+                            MeterRegistry meterRegistry) {
+    this.idleTimeoutMs = idleTimeoutMs;
+    Gauge.builder("chat.websocket.sessions.estimated.bytes", this, monitor -> monitor.getSummary().getEstimatedBytes())
+            .description("WebSocket 세션 메모리 추정치")
+            .register(meterRegistry);
+  }
+
+  // WebSocketHandler decorator 에서 호출
+  public void opened(WebSocketSession session) {
+    sessions.put(session.getId(), new SessionStats(session));
+  }
+
+  public void closed(String sessionId) {
+    sessions.remove(sessionId);
+  }
+
+  // clientInboundChannel 에 등록 : 활동 시간, 구독 수
+  public ChannelInterceptor inboundInterceptor() {
+    return inboundInterceptor;
+  }
+
+  // clientOutboundChannel 에 등록 : 전송 대기 프레임 수
+  public ChannelInterceptor outboundInterceptor() {
+    return outboundInterceptor;
+  }
+
+  // idle-timeout-ms 동안 클라이언트로부터 아무 프레임도 받지 못한 세션 종료 (종료 이벤트로 나머지 정리가 이어짐)
+  @Scheduled(fixedDelayString = "${chat.websocket.idle-check-interval-ms:30000}")
+  public void evictIdleSessions() {
+    if(idleTimeoutMs <= 0) return;
+    long now = System.currentTimeMillis();
+    for (SessionStats stats : sessions.values()) {
+      if(now - stats.lastActivity < idleTimeoutMs) continue;
+      try {
+        log.info("응답 없는 WebSocket 세션 종료 : {} ({}ms)", stats.session.getId(), now - stats.lastActivity);
+        stats.session.close(CloseStatus.SESSION_NOT_RELIABLE);
+      } catch (IOException e) {
+        log.warn("WebSocket 세션 종료 실패 : {}", stats.session.getId(), e);
+      }
+      sessions.remove(stats.session.getId());
+    }
+  }
+
+  public Summary getSummary() {
+    long subscriptions = 0, pendingFrames = 0, pendingBytes = 0;
+    int count = 0;
+    for (SessionStats stats : sessions.values()) {
+      count++;
+      subscriptions += stats.subscriptions.get();
+      pendingFrames += stats.pendingFrames.get();
+      pendingBytes += stats.pendingBytes.get();
+    }
+    long estimated = count * SESSION_BASE_BYTES + subscriptions * SUBSCRIPTION_BYTES + pendingBytes;
+    return new Summary(count, subscriptions, pendingFrames, pendingBytes, estimated,
+            count == 0 ? 0 : estimated / count);
+  }
+
+  private SessionStats find(Message<?> message) {
+    String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+    return sessionId == null ? null : sessions.get(sessionId);
+  }
+
+  private static long payloadBytes(Message<?> message) {
+    return message.getPayload() instanceof byte[] bytes ? bytes.length : 0;
+  }
+
+  private class InboundInterceptor implements ChannelInterceptor {
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+      SessionStats stats = find(message);
+      if(stats == null) return message;
+
+      stats.lastActivity = System.currentTimeMillis();
+      SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+      if(type == SimpMessageType.SUBSCRIBE) stats.subscriptions.incrementAndGet();
+      else if(type == SimpMessageType.UNSUBSCRIBE) stats.subscriptions.updateAndGet(count -> Math.max(0, count - 1));
+      return message;
+    }
+  }
+
+  // preSend(보내는 스레드) 에서 +1, 전송 스레드에서 처리가 끝나면 -1
+  private class OutboundInterceptor implements ExecutorChannelInterceptor {
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+      SessionStats stats = find(message);
+      if(stats != null){
+        stats.pendingFrames.incrementAndGet();
+        stats.pendingBytes.addAndGet(payloadBytes(message));
+      }
+      return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+      SessionStats stats = find(message);
+      if(stats != null){
+        stats.pendingFrames.decrementAndGet();
+        stats.pendingBytes.addAndGet(-payloadBytes(message));
+      }
+    }
+  }
+
+  private static class SessionStats {
+    private final WebSocketSession session;
+    private volatile long lastActivity = System.currentTimeMillis();
+    private final AtomicInteger subscriptions = new AtomicInteger();
+    private final AtomicInteger pendingFrames = new AtomicInteger();
+    private final AtomicLong pendingBytes = new AtomicLong();
+
+    private SessionStats(WebSocketSession session) {
+      this.session = session;
+    }
+  }
+
+  @Getter
+  @AllArgsConstructor
+  public static class Summary {
+    private final int sessions;
+    private final long subscriptions;
+    private final long pendingFrames;
+    private final long pendingBytes;
+    private final long estimatedBytes;
+    private final long estimatedBytesPerSession;
+  }
+}
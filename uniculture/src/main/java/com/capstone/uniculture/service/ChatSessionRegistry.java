@@ -0,0 +1,83 @@
+package com.capstone.uniculture.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * WebSocket(STOMP) 세션 레지스트리
+ * 연결/해제 이벤트는 브로커 스레드들에서 동시에 들어오므로 ConcurrentHashMap 으로만 관리한다.
+ * - 세션 id -> 멤버 id : 메시지를 보낸 사람 찾기
+ * - 멤버 id -> 세션 id 들 : 접속 여부 확인, 한 사용자의 여러 기기(탭)로 전송할 때 사용
+ *
+ * 서버 메모리에만 있는 이 서버의 세션 목록이다 (서버끼리 공유 X)
+ * - getMemberId 는 항상 세션이 연결된 서버에서 호출되므로 relay 모드(서버 여러대)에서도 정확하다
+ * - isOnline 은 "이 서버에 연결된 세션이 있는지" 만 알려준다. relay 모드에서는
+ *   · 접속 상태 이벤트(/sub/chat/presence/{memberId})는 서버마다 따로 나간다 - 두 서버에 연결된 멤버가 한쪽만 끊어도 offline 이 전송됨
+ *   · 채팅방 접속 상태 조회(ChatPresenceService.findRoomPresence)는 요청을 받은 서버에 연결된 멤버만 online 으로 보인다
+ *   · 안읽은 개수 배지(ChatUnreadCounter)는 메시지를 처리한 서버에 연결된 멤버에게만 바로 전송된다
+ *   정확한 접속 상태가 필요하면 세션 목록을 외부 저장소(Redis 등)로 옮겨야 한다
+ */
+@Component
+public class ChatSessionRegistry {
+
+  private final ConcurrentHashMap<String, Long> sessionToMember = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Long, Set<String>> memberToSessions = new ConcurrentHashMap<>();
+
+  // 세션 등록. 이 멤버의 첫번째 세션이면 true
+  public boolean register(String sessionId, Long memberId) {
+    Long previous = sessionToMember.put(sessionId, memberId);
+    if(previous != null && !previous.equals(memberId)) removeSession(previous, sessionId);
+
+    boolean[] first = new boolean[1];
+    memberToSessions.compute(memberId, (id, sessions) -> {
+      if(sessions == null){
+        sessions = ConcurrentHashMap.newKeySet();
+        first[0] = true;
+      }
+      sessions.add(sessionId);
+      return sessions;
+    });
+    return first[0];
+  }
+
+  // 세션 해제. 세션의 주인 멤버 id 를 돌려준다 (등록되지 않은 세션이면 null)
+  public Long unregister(String sessionId) {
+    Long memberId = sessionToMember.remove(sessionId);
+    if(memberId != null) removeSession(memberId, sessionId);
+    return memberId;
+  }
+
+  public Long getMemberId(String sessionId) {
+    return sessionToMember.get(sessionId);
+  }
+
+  public Set<String> getSessionIds(Long memberId) {
+    Set<String> sessions = memberToSessions.get(memberId);
+    return sessions == null ? Collections.emptySet() : Collections.unmodifiableSet(sessions);
+  }
+
+  public boolean isOnline(Long memberId) {
+    return memberToSessions.containsKey(memberId);
+  }
+
+  // 현재 접속중인 멤버 수
+  public int getOnlineMemberCount() {
+    return memberToSessions.size();
+  }
+
+  // 현재 연결된 세션 수
+  public int getSessionCount() {
+    return sessionToMember.size();
+  }
+
+  // 마지막 세션이 빠지면 멤버 엔트리도 같이 지워서 isOnline 이 false 가 되게 한다
+  private void removeSession(Long memberId, String sessionId) {
+    memberToSessions.computeIfPresent(memberId, (id, sessions) -> {
+      sessions.remove(sessionId);
+      return sessions.isEmpty() ? null : sessions;
+    });
+  }
+}
@@ -0,0 +1,66 @@
+package com.capstone.uniculture.service;
+
+import com.capstone.uniculture.dto.Message.TranslatedMessageDto;
+import com.capstone.uniculture.dto.Translate.TranslationResponseDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 채팅 자동 번역 (자동 번역 모드인 채팅방)
+ * 원문은 바로 전송하고, 번역은 chatTranslationExecutor 에서 따로 처리해서 /sub/chat/user/{memberId}/translation 으로 보낸다
+ * - 받는 사람들을 언어별로 묶어서 언어당 한번만 번역 (같은 문장은 TranslateService 캐시에서)
+ * - 원문이 이미 그 언어면 보내지 않는다
+ * - 번역 실패는 원문 전송에 영향이 없도록 로그만 남긴다
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatTranslationService {
+
+  private final TranslateService translateService;
+  private final MemberLanguageCache memberLanguageCache;
+  private final ChatBroadcaster chatBroadcaster;
+
+  @Async("chatTranslationExecutor")
+  public void translateAndSend(Long roomId, Long chatMessageId, String message, Long senderId, Collection<Long> memberIds) {
+    if(message == null || message.isBlank()) return;
+
+    // 1. 보낸 사람을 뺀 참여자들을 언어별로 묶기
+    List<Long> recipientIds = memberIds.stream()
+            .filter(memberId -> !memberId.equals(senderId))
+            .collect(Collectors.toList());
+    Map<String, List<Long>> recipientsByLanguage = memberLanguageCache.getLanguages(recipientIds).entrySet().stream()
+            .collect(Collectors.groupingBy(Map.Entry::getValue, LinkedHashMap::new,
+                    Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+
+    // 2. 언어마다 한번씩 번역해서 그 언어를 쓰는 참여자들에게 전송
+    for (Map.Entry<String, List<Long>> entry : recipientsByLanguage.entrySet()) {
+      String targetLanguage = entry.getKey();
+      try {
+        TranslationResponseDto translation = translateService.translateText(message, targetLanguage);
+        if(targetLanguage.equalsIgnoreCase(translation.getDetected_source_language())) continue;
+
+        TranslatedMessageDto translated = TranslatedMessageDto.builder()
+                .roomId(roomId)
+                .chatMessageId(chatMessageId)
+                .sourceLanguage(translation.getDetected_source_language())
+                .targetLanguage(targetLanguage)
+                .message(translation.getText())
+                .build();
+        chatBroadcaster.broadcast(ChatBroadcaster.delivery(translated, entry.getValue().stream()
+                .map(memberId -> "/sub/chat/user/" + memberId + "/translation")
+                .toArray(String[]::new)));
+      } catch (RuntimeException e) {
+        log.warn("채팅 자동 번역 실패 : room={}, message={}, target={}", roomId, chatMessageId, targetLanguage, e);
+      }
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package com.capstone.uniculture.service;
+
+import com.capstone.uniculture.dto.Message.UnreadCountDto;
+import com.capstone.uniculture.repository.ChatRoomMembershipRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 멤버별 안읽은 채팅 전체 개수 (배지)
+ * DB 에 저장되는 값은 채팅방별 ChatRoomMembership.unreadCount 이고, 그 합계를 멤버별로 메모리에 들고 있는다
+ * - 처음 필요할때 한번만 SUM 으로 읽고, 이후 메시지를 받으면 +1
+ * - 읽음 처리/채팅방 나가기처럼 줄어드는 경우는 값을 버리고 다음에 DB 에서 다시 읽는다 (방마다 줄어드는 양이 다르므로)
+ * - 바뀐 멤버는 모아뒀다가 push-interval-ms 마다 한번씩 /sub/chat/user/{memberId} 로 전송 (메시지가 몰려도 배지는 한번만)
+ * - 접속중인 멤버에게만 전송하고, 마지막 세션이 끊기면 값을 버린다 (메모리는 접속자 수 만큼)
+ * 서버마다 따로 들고 있으므로 서버를 여러대 띄우면 다른 서버에서 받은 메시지는 읽음 처리 전까지 반영되지 않는다
+ */
+@Component
+public class ChatUnreadCounter {
+
+  private static final int MAX_CACHED_MEMBERS = 100_000;
+
+  private final ChatRoomMembershipRepository chatRoomMembershipRepository;
+  private final ChatSessionRegistry chatSessionRegistry;
+  private final ChatBroadcaster chatBroadcaster;
+
+  private final ConcurrentHashMap<Long, AtomicLong> totals = new ConcurrentHashMap<>();
+  private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+
+  public ChatUnreadCounter(ChatRoomMembershipRepository chatRoomMembershipRepository,
+                           ChatSessionRegistry chatSessionRegistry,
+                           ChatBroadcaster chatBroadcaster) {
+    this.chatRoomMembershipRepository = chatRoomMembershipRepository;
+    this.chatSessionRegistry = chatSessionRegistry;
+    this.chatBroadcaster = chatBroadcaster;
+  }
+
+  public long getUnreadCount(Long memberId) {
+    AtomicLong total = totals.get(memberId);
+    if(total != null) return total.get();
+
+    if(totals.size() >= MAX_CACHED_MEMBERS) totals.clear();
+    return totals.computeIfAbsent(memberId, id -> new AtomicLong(chatRoomMembershipRepository.sumUnreadCount(id))).get();
+  }
+
+  // 새 메시지를 받은 멤버들 (보낸 사람 제외). 메모리에 없는 멤버는 다음에 DB 에서 읽으므로 전송 대상만 표시
+  public void increment(Collection<Long> memberIds) {
+    for (Long memberId : memberIds) {
+      AtomicLong total = totals.get(memberId);
+      if(total != null) total.incrementAndGet();
+      markChanged(memberId);
+    }
+  }
+
+  // 줄어든 경우 (읽음 처리, 채팅방 나가기) : 다음에 DB 에서 다시 읽는다
+  public void invalidate(Long memberId) {
+    totals.remove(memberId);
+    markChanged(memberId);
+  }
+
+  // 마지막 세션이 끊긴 멤버
+  public void evict(Long memberId) {
+    totals.remove(memberId);
+    changed.remove(memberId);
+  }
+
+  private void markChanged(Long memberId) {
+    if(chatSessionRegistry.isOnline(memberId)) changed.add(memberId);
+  }
+
+  @Scheduled(fixedDelayString = "${chat.unread.push-interval-ms:500}")
+  public void pushChanges() {
+    if(changed.isEmpty()) return;
+    List<Long> memberIds = new ArrayList<>(changed);
+    changed.removeAll(memberIds);
+    for (Long memberId : memberIds) {
+      chatBroadcaster.broadcast(ChatBroadcaster.delivery(
+              new UnreadCountDto(getUnreadCount(memberId)), "/sub/chat/user/" + memberId));
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package com.capstone.uniculture.service;
+
+import com.capstone.uniculture.repository.MemberRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 멤버 id -> 번역 언어(DeepL target_lang) 캐시
+ * 번역할 때마다 Member 를 조회하지 않도록 한번 읽은 언어는 들고 있는다
+ * 국가는 회원가입때만 정해지고 회원정보 수정으로 바뀌지 않으므로 무효화 X (크기 제한을 넘으면 통째로 비움)
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberLanguageCache {
+
+  private static final int MAX_CACHED_MEMBERS = 100_000;
+
+  private final MemberRepository memberRepository;
+  private final ConcurrentHashMap<Long, String> languages = new ConcurrentHashMap<>();
+
+  public String getLanguage(Long memberId) {
+    String language = getLanguages(List.of(memberId)).get(memberId);
+    if(language == null){
+      throw new IllegalArgumentException("찾는 사용자가 존재하지 않습니다.");
+    }
+    return language;
+  }
+
+  // 여러 멤버의 언어 (캐시에 없는 멤버만 한번에 조회, 존재하지 않는 멤버는 결과에서 빠짐)
+  public Map<Long, String> getLanguages(Collection<Long> memberIds) {
+    Map<Long, String> result = new HashMap<>();
+    List<Long> missing = memberIds.stream()
+            .filter(memberId -> {
+              String language = languages.get(memberId);
+              if(language != null) result.put(memberId, language);
+              return language == null;
+            })
+            .collect(Collectors.toList());
+    if(missing.isEmpty()) return result;
+
+    if(languages.size() + missing.size() > MAX_CACHED_MEMBERS) languages.clear();
+    for (MemberRepository.MemberCountry member : memberRepository.findCountriesByIdIn(missing)) {
+      String language = toLanguage(member.getCountry());
+      languages.put(member.getId(), language);
+      result.put(member.getId(), language);
+    }
+    return result;
+  }
+
+  // 국가 -> DeepL target_lang
+  public static String toLanguage(String country) {
+    if(country == null) return "EN";
+    return switch (country) {
+      case "Korea" -> "KO";
+      case "Japan" -> "JA";
+      case "China" -> "ZH";
+      default -> "EN";
+    };
+  }
+}
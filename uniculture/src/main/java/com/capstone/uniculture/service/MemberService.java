@@ -68,6 +68,7 @@ public class MemberService implements UserDetailsService {
     private final PurposeService purposeService;
 
     private final S3UploadUtil s3UploadUtil;
+    private final MemberLanguageCache memberLanguageCache;
 
 
     // 회원 가입
@@ -403,13 +404,7 @@ public class MemberService implements UserDetailsService {
     }
 
     public String findMyLanguage(Long memberId) {
-        String country = findMember(memberId).getCountry();
-        return switch (country) {
-            case "Korea" -> "KO";
-            case "Japan" -> "JA";
-            case "China" -> "ZH";
-            default -> "EN";
-        };
+        return memberLanguageCache.getLanguage(memberId);
     }
 
     public String update1() throws InterruptedException {
@@ -0,0 +1,209 @@
+package com.capstone.uniculture.service;
+
+import com.capstone.uniculture.entity.Post.PostTag;
+import com.capstone.uniculture.repository.PostLikeRepository;
+import com.capstone.uniculture.repository.PostTagRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 주간 인기 게시물(좋아요 수) / 인기 태그(사용 수) 순위
+ * 홈 화면마다 일주일치 PostLike, PostTag 를 GROUP BY 하지 않고, 서버 메모리에 1시간 단위 버킷으로 집계해둔다 (SlidingWindowCounter)
+ * - 좋아요/좋아요 취소, 태그 추가/삭제, 게시물 삭제시 PostService, PostTagService 가 알려준다
+ *   트랜잭션 안에서 불렸다면 커밋된 뒤에 반영한다 (롤백된 변경이 순위에 남지 않도록)
+ * - 서버 시작시, 그리고 rebuild-interval-ms 마다 DB 에서 시간별로 다시 집계해서 교체한다
+ *   재집계와 커밋 후 반영이 겹치지 않도록 fence 로 막는다 : 변경을 만든 트랜잭션은 커밋 직전부터 반영이 끝날때까지 read lock,
+ *   재집계는 조회부터 교체까지 write lock. 그래서 모든 변경은 "조회 전에 커밋 (조회 결과에 포함, 반영분은 교체로 덮어씀)" 이거나
+ *   "교체 뒤에 반영" 둘 중 하나가 된다 (두번 세거나 빠지지 않음). 재집계 동안은 좋아요/태그 트랜잭션의 커밋이 잠깐 기다린다
+ * 서버마다 따로 들고 있으므로 서버를 여러대 띄우면 다른 서버에서 일어난 변경은 다음 재집계때 반영된다
+ * (회원 탈퇴로 함께 지워진 좋아요/태그도 마찬가지)
+ */
+@Slf4j
+@Component
+public class PostRanking {
+
+  private final PostLikeRepository postLikeRepository;
+  private final PostTagRepository postTagRepository;
+  private final int windowHours;
+
+  // 좋아요 수가 같으면 최신 게시물(id 큰 순), 사용 수가 같으면 태그 이름순
+  private final SlidingWindowCounter<Long> likes;
+  private final SlidingWindowCounter<String> tags;
+  private volatile boolean loaded = false;
+
+  // 재집계를 기다리는 동안 새 커밋이 막히지 않도록 write lock 은 줄을 서지 않고 tryLock 으로만 잡는다
+  // (줄을 선 write lock 뒤에서 커밋이 기다리고, 그 커밋이 잡은 행을 다른 커밋이 기다리면 교착 상태)
+  private static final long FENCE_WAIT_MS = 5000;
+  private static final long FENCE_RETRY_MS = 5;
+  private final ReentrantReadWriteLock fence = new ReentrantReadWriteLock();
+
+  public PostRanking(PostLikeRepository postLikeRepository,
+                     PostTagRepository postTagRepository,
+                     @Value("${post.ranking.window-hours:168}") int windowHours) {
+    this.postLikeRepository = postLikeRepository;
+    this.postTagRepository = postTagRepository;
+    this.windowHours = windowHours;
+    this.likes = new SlidingWindowCounter<>(windowHours, Comparator.<Long>reverseOrder());
+    this.tags = new SlidingWindowCounter<>(windowHours, Comparator.<String>naturalOrder());
+  }
+
+  public List<Long> topPosts(int size) {
+    if(!loaded) rebuild();
+    return likes.top(size, LocalDateTime.now());
+  }
+
+  public List<String> topTags(int size) {
+    if(!loaded) rebuild();
+    return tags.top(size, LocalDateTime.now());
+  }
+
+  public void liked(Long postId, LocalDateTime likedAt) {
+    afterCommit(() -> likes.add(postId, likedAt, 1, LocalDateTime.now()));
+  }
+
+  // 취소된 좋아요가 눌렸던 시간대에서 뺀다
+  public void unliked(Long postId, LocalDateTime likedAt) {
+    afterCommit(() -> likes.add(postId, likedAt, -1, LocalDateTime.now()));
+  }
+
+  public void tagsAdded(Collection<PostTag> postTags) {
+    List<Map.Entry<String, LocalDateTime>> added = tagTimes(postTags);
+    afterCommit(() -> addTags(added, 1));
+  }
+
+  public void tagsRemoved(Collection<PostTag> postTags) {
+    List<Map.Entry<String, LocalDateTime>> removed = tagTimes(postTags);
+    afterCommit(() -> addTags(removed, -1));
+  }
+
+  // 게시물 삭제 - 좋아요는 게시물째로, 태그는 하나씩 뺀다
+  public void postRemoved(Long postId, Collection<PostTag> postTags) {
+    List<Map.Entry<String, LocalDateTime>> removed = tagTimes(postTags);
+    afterCommit(() -> {
+      likes.remove(postId);
+      addTags(removed, -1);
+    });
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuildOnStartup() {
+    if(!loaded) rebuild();
+  }
+
+  @Scheduled(initialDelayString = "${post.ranking.rebuild-interval-ms:3600000}",
+          fixedDelayString = "${post.ranking.rebuild-interval-ms:3600000}")
+  public void scheduledRebuild() {
+    rebuild();
+  }
+
+  // DB 에서 윈도우 기간의 좋아요/태그를 (키, 시간) 별로 다시 집계
+  public synchronized void rebuild() {
+    if(!acquireFence()){
+      log.warn("커밋이 계속 진행중이라 인기 게시물/태그 재집계를 건너뜁니다 (다음 주기에 다시 시도)");
+      return;
+    }
+    try {
+      rebuildFenced();
+    } finally {
+      fence.writeLock().unlock();
+    }
+  }
+
+  private void rebuildFenced() {
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime since = now.minusHours(windowHours);
+
+    Map<Long, Map<Long, Long>> hourlyLikes = new HashMap<>();
+    postLikeRepository.countHourlySince(since).forEach(row -> hourlyLikes
+            .computeIfAbsent(hourOf(row.getYear(), row.getMonth(), row.getDay(), row.getHour()), h -> new HashMap<>())
+            .merge(row.getPostId(), row.getCount(), Long::sum));
+
+    Map<Long, Map<String, Long>> hourlyTags = new HashMap<>();
+    postTagRepository.countHourlySince(since).forEach(row -> hourlyTags
+            .computeIfAbsent(hourOf(row.getYear(), row.getMonth(), row.getDay(), row.getHour()), h -> new HashMap<>())
+            .merge(row.getHashtag(), row.getCount(), Long::sum));
+
+    likes.replace(hourlyLikes, now);
+    tags.replace(hourlyTags, now);
+    if(!loaded) log.info("인기 게시물/태그 집계 완료 (최근 {}시간)", windowHours);
+    loaded = true;
+  }
+
+  private boolean acquireFence() {
+    long deadline = System.currentTimeMillis() + FENCE_WAIT_MS;
+    while(!fence.writeLock().tryLock()){
+      if(System.currentTimeMillis() >= deadline) return false;
+      try {
+        Thread.sleep(FENCE_RETRY_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static long hourOf(int year, int month, int day, int hour) {
+    return SlidingWindowCounter.toHour(LocalDateTime.of(year, month, day, hour, 0));
+  }
+
+  private void addTags(List<Map.Entry<String, LocalDateTime>> tagTimes, long delta) {
+    LocalDateTime now = LocalDateTime.now();
+    tagTimes.forEach(tag -> tags.add(tag.getKey(), tag.getValue(), delta, now));
+  }
+
+  // 커밋 뒤에는 엔티티(지연 로딩 컬렉션)를 읽을 수 없으므로 태그 이름과 시간을 미리 꺼내둔다
+  // 저장 직후라면 createdDate 가 채워져 있고, 없으면 지금 시간
+  private static List<Map.Entry<String, LocalDateTime>> tagTimes(Collection<PostTag> postTags) {
+    LocalDateTime now = LocalDateTime.now();
+    return postTags.stream()
+            .map(postTag -> Map.entry(postTag.getHashtag(), postTag.getCreatedDate() == null ? now : postTag.getCreatedDate()))
+            .toList();
+  }
+
+  // 트랜잭션이 있으면 커밋된 뒤에, 없으면 바로 실행 (커밋 직전부터 반영이 끝날때까지 fence read lock)
+  private void afterCommit(Runnable task) {
+    if(!TransactionSynchronizationManager.isSynchronizationActive()){
+      fence.readLock().lock();
+      try {
+        task.run();
+      } finally {
+        fence.readLock().unlock();
+      }
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      private boolean locked;
+
+      @Override
+      public void beforeCommit(boolean readOnly) {
+        fence.readLock().lock();
+        locked = true;
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        if(!locked) return;
+        try {
+          if(status == STATUS_COMMITTED) task.run();
+        } finally {
+          fence.readLock().unlock();
+        }
+      }
+    });
+  }
+}
@@ -7,18 +7,23 @@ import com.capstone.uniculture.dto.Post.Request.PostListRequestDto;
 import com.capstone.uniculture.dto.Post.Request.PostStatusDto;
 import com.capstone.uniculture.dto.Post.Request.PostUpdateDto;
 import com.capstone.uniculture.dto.Post.Response.PostDetailDto;
+import com.capstone.uniculture.dto.Post.Response.PostFeedResponseDto;
 import com.capstone.uniculture.dto.Post.Response.PostListDto;
 import com.capstone.uniculture.dto.Post.Response.PostSearchDto;
 import com.capstone.uniculture.entity.Member.Member;
 import com.capstone.uniculture.entity.Post.*;
 
 import com.capstone.uniculture.repository.*;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.criteria.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,7 +34,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -40,10 +48,16 @@ public class PostService {
     private final MemberRepository memberRepository;
     private final PostRepository postRepository;
     private final PostLikeRepository postLikeRepository;
-    private final PostTagRepository postTagRepository;
     private final PostTagService postTagService;
     private final PhotoRepository photoRepository;
     private final S3UploadUtil s3UploadUtil;
+    private final PostViewCounter postViewCounter;
+    private final PostRanking postRanking;
+    private final EntityManager entityManager;
+
+    private static final int DEFAULT_FEED_SIZE = 10;
+    private static final int MAX_FEED_SIZE = 100;
+    private static final int HOT_SIZE = 5;
 
 
     private Member findMember(Long id) {
@@ -51,11 +65,6 @@ public class PostService {
                 () -> new IllegalArgumentException("찾는 사용자가 존재하지 않습니다."));
     }
 
-    private Post findPost(Long postId) {
-        return postRepository.findById(postId).orElseThrow(
-                () -> new IllegalArgumentException("찾는 게시물이 존재하지 않습니다."));
-    }
-
     // 게시물 생성
     public String createPost(PostAddDto postAddDto) {
         // 1. 게시물 작성하는 Member 찾기
@@ -89,17 +98,20 @@ public class PostService {
     // 주간 인기 태그
 
     public List<String> hotTag(){
-        Pageable pageable = PageRequest.of(0, 5);
-        LocalDateTime oneWeekAgo = LocalDateTime.now().minusWeeks(1);
-        return postTagRepository.findMostUsedPostTagLastWeek(oneWeekAgo,pageable).getContent();
+        return postRanking.topTags(HOT_SIZE);
     }
 
     // 주간 좋아요 많은 게시물순
     public List<PostListDto> hotPost(){
-        LocalDateTime oneWeekAgo = LocalDateTime.now().minusWeeks(1);
-        Pageable pageable = PageRequest.of(0, 5); // 0번째 페이지부터 5개의 결과를 가져옴
-        Page<Post> mostLikedPostLastWeek = postRepository.findMostLikedPostLastWeek(oneWeekAgo,pageable);
-        return mostLikedPostLastWeek.getContent().stream().map(PostListDto::fromEntity).toList();
+        // 순위는 메모리에 집계된 값으로 (PostRanking), DB 는 게시물 5개를 id 로만 조회
+        List<Long> postIds = postRanking.topPosts(HOT_SIZE);
+        if(postIds.isEmpty()) return List.of();
+
+        // 목록용 projection 으로 가져온 뒤 좋아요 순서대로 정렬
+        Map<Long, PostListDto> posts = postRepository.findPostListByIdIn(postIds).stream()
+                .collect(Collectors.toMap(PostListDto::getPostId, Function.identity()));
+        postViewCounter.mergeInto(posts.values());
+        return postIds.stream().map(posts::get).filter(Objects::nonNull).toList();
     }
 
     // 게시물 업데이트
@@ -140,15 +152,17 @@ public class PostService {
         return "게시물 수정 성공";
     }
 
-    // 게시물 조회
+    // 게시물 조회 (DB 쓰기 없음)
+    @Transactional(readOnly = true)
     public PostDetailDto getPost(Long postId) {
         // 1. 게시물 찾기(FetchJoin 으로 전부 끌어오기)
         Post post = postRepository.findPostWithMemberById(postId)
                     .orElseThrow(()-> new IllegalArgumentException("조회하려는 게시물이 없습니다."));
 
-        // 2. 조회수 증가
-        post.upViewCount();
+        // 2. 조회수 증가 (PostViewCounter 에 모아서 주기적으로 반영, 아직 반영 안된 조회수는 응답에 더해줌)
+        postViewCounter.increment(postId);
         PostDetailDto postDetailDto = PostDetailDto.fromEntity(post);
+        postDetailDto.setViewCount((int) (post.getViewCount() + postViewCounter.getPending(postId)));
 
         // 3. 현재 로그인 상태인지 확인후 DTO 의 필드 값 변경
         try{
@@ -188,49 +202,120 @@ public class PostService {
                 () -> new IllegalArgumentException("본인이 작성한 글이 아닙니다"));
 
         postRepository.delete(post);
+        postRanking.postRemoved(postId, post.getPostTags());
         return "게시물 삭제 성공";
     }
 
     // 게시물 좋아요
     public String likePost(Long postId){
         Long memberId = SecurityUtil.getCurrentMemberId();
-        Optional<PostLike> postLike = postLikeRepository.findByMember_IdAndPost_Id(memberId, postId);
-        if(postLike.isPresent()){
+
+        // 1. 좋아요 추가 (이미 눌렀으면 0건, 동시에 같은 요청이 오면 유니크 제약 위반)
+        LocalDateTime now = LocalDateTime.now();
+        int inserted;
+        try {
+            inserted = postLikeRepository.insertIfAbsent(memberId, postId, now);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("이미 좋아요를 누른 게시물입니다.");
+        }
+        if(inserted == 0){
+            if(!postRepository.existsById(postId)){
+                throw new IllegalArgumentException("찾는 게시물이 존재하지 않습니다.");
+            }
             throw new IllegalArgumentException("이미 좋아요를 누른 게시물입니다.");
         }
-        Post post = findPost(postId);
-        Member member = findMember(memberId);
-        postLikeRepository.save(new PostLike(member,post));
-        post.likePost();
 
+        // 2. 좋아요 수 +1 (마지막에 실행해서 게시물 행 잠금을 짧게)
+        postRepository.addLikeCount(postId, 1);
+        postRanking.liked(postId, now);
         return "좋아요 성공";
     }
 
     // 게시물 좋아요 취소
     public String unlikePost(Long postId){
         Long memberId = SecurityUtil.getCurrentMemberId();
-        Optional<PostLike> postLike = postLikeRepository.findByMember_IdAndPost_Id(memberId, postId);
-        if(postLike.isEmpty()){
+
+        // 1. 좋아요 삭제 (누르지 않았거나 이미 취소됐으면 0건). 누른 시간은 인기 게시물 집계에서 빼기 위해 읽어둠
+        Optional<LocalDateTime> likedAt = postLikeRepository.findCreatedDate(memberId, postId);
+        if(likedAt.isEmpty() || postLikeRepository.deleteByMemberIdAndPostId(memberId, postId) == 0){
             throw new IllegalArgumentException("좋아요를 누르지 않은 게시물입니다.");
         }
-        Post post = findPost(postId);
-        postLikeRepository.deleteByMember_IdAndPost_Id(memberId,postId);
-        post.unlikePost();
 
+        // 2. 좋아요 수 -1
+        postRepository.addLikeCount(postId, -1);
+        postRanking.unliked(postId, likedAt.get());
         return "좋아요 취소 성공";
     }
 
     // 모든 게시물 조회
     public Page<PostListDto> getAllPosts(Pageable pageable, PostListRequestDto postListRequestDto) {
-        Page<Post> posts = postRepository.findAllWithMemberAndComments(pageable,
+        // 목록용 projection 으로 바로 DTO 조회 (content 는 앞부분만)
+        Page<PostListDto> posts = postRepository.findPostList(pageable,
                 postListRequestDto.getPt(),
                 postListRequestDto.getCa(),
                 postListRequestDto.getPs()
         );
-        List<PostListDto> list = posts.getContent().stream()
-                .map(PostListDto::fromEntity)
-                .collect(Collectors.toList());
-        return new PageImpl<>(list, pageable, posts.getTotalElements());
+        postViewCounter.mergeInto(posts.getContent());
+        return posts;
+    }
+
+    // 모든 게시물 조회 (커서 페이징) - 페이지 번호 대신 마지막으로 받은 게시물 기준으로 다음 페이지, 전체 개수(COUNT) 조회 X
+    @Transactional(readOnly = true)
+    public PostFeedResponseDto getPostFeed(PostListRequestDto postListRequestDto, String cursor, Integer size) {
+        int pageSize = (size == null || size <= 0) ? DEFAULT_FEED_SIZE : Math.min(size, MAX_FEED_SIZE);
+        Pageable pageable = PageRequest.of(0, pageSize);
+
+        // 커서가 없으면 첫 페이지, 있으면 커서 이후 (목록용 projection 으로 바로 DTO 조회)
+        PostFeedResponseDto.Cursor after = (cursor == null || cursor.isBlank()) ? null : PostFeedResponseDto.parseCursor(cursor);
+        Slice<PostListDto> posts = findFeed(postListRequestDto, after, pageable);
+        postViewCounter.mergeInto(posts.getContent());
+        return PostFeedResponseDto.of(posts);
+    }
+
+    /**
+     * 메인창 게시물 목록 쿼리 - 들어온 필터(타입/카테고리/상태)만 WHERE 에 넣는다
+     * (:pt is null or ...) 같은 조건은 인덱스를 못 타므로, 필터 조합마다 (필터 컬럼, 작성시간, id) 인덱스를 탈 수 있게 필요한 조건만 만든다
+     * 다음 페이지 조건은 created_date <= 커서 로 인덱스 범위를 잡고, 같은 시간인 게시물만 id 로 거른다
+     * Slice 로 받으므로 COUNT 쿼리 없이 size + 1 개만 읽어서 다음 페이지 유무를 판단한다
+     */
+    private Slice<PostListDto> findFeed(PostListRequestDto filter, PostFeedResponseDto.Cursor after, Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PostListDto> criteriaQuery = criteriaBuilder.createQuery(PostListDto.class);
+        Root<Post> post = criteriaQuery.from(Post.class);
+        Join<Post, Member> member = post.join("member", JoinType.INNER);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if(filter.getPt() != null){
+            predicates.add(criteriaBuilder.equal(post.get("posttype"), filter.getPt()));
+        }
+        if(filter.getCa() != null){
+            predicates.add(criteriaBuilder.equal(post.get("postCategory"), filter.getCa()));
+        }
+        if(filter.getPs() != null){
+            predicates.add(criteriaBuilder.equal(post.get("postStatus"), filter.getPs()));
+        }
+        if(after != null){
+            Path<LocalDateTime> createdDate = post.get("createdDate");
+            predicates.add(criteriaBuilder.lessThanOrEqualTo(createdDate, after.createdDate()));
+            predicates.add(criteriaBuilder.or(
+                    criteriaBuilder.lessThan(createdDate, after.createdDate()),
+                    criteriaBuilder.lessThan(post.get("id"), after.postId())));
+        }
+
+        criteriaQuery.select(criteriaBuilder.construct(PostListDto.class,
+                        post.get("id"), post.get("title"),
+                        criteriaBuilder.substring(post.get("content"), 1, PostListDto.EXCERPT_LENGTH),
+                        post.get("postStatus"), post.get("viewCount"), post.get("commentCount"), post.get("likeCount"),
+                        member.get("nickname"), post.get("createdDate"), post.get("modifiedDate"), post.get("imageUrl")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(criteriaBuilder.desc(post.get("createdDate")), criteriaBuilder.desc(post.get("id")));
+
+        List<PostListDto> content = entityManager.createQuery(criteriaQuery)
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if(hasNext) content = content.subList(0, pageable.getPageSize());
+        return new SliceImpl<>(content, pageable, hasNext);
     }
 
     // 게시물 타입에 따른 게시물 조회 (통합으로 인한 미사용)
@@ -248,15 +333,10 @@ public class PostService {
     // 멤버 아이디에 따른 게시물 조회
     public Page<PostListDto> getPostsByMember(PostCategory postCategory, Long memberId, Pageable pageable) {
 
-        // 1. 카테고리와 아이디로 게시물 목록 가져오기 (Paging 처리)
-        Page<Post> posts = postRepository.findByMemberIdWithMember(postCategory, memberId, pageable);
-
-        // 2. Entity -> DTO 변환 (Fetch Join 을 했기에 Post.getMember().getNickname()을 하더라도 추가로 쿼리문이 나가지않음)
-        List<PostListDto> list = posts.getContent().stream()
-                .map(PostListDto::fromEntity)
-                .toList();
-
-        return new PageImpl<>(list,pageable,posts.getTotalElements());
+        // 카테고리와 아이디로 게시물 목록 가져오기 (Paging 처리, 목록용 projection 으로 바로 DTO 조회)
+        Page<PostListDto> posts = postRepository.findPostListByMemberId(postCategory, memberId, pageable);
+        postViewCounter.mergeInto(posts.getContent());
+        return posts;
     }
 
 
@@ -296,15 +376,10 @@ public class PostService {
         // 1. 나의 아이디 얻어오기
         Long memberId = SecurityUtil.getCurrentMemberId();
 
-        // 2. 내 친구인 Member 의 게시물만 가져오기
-        Page<Post> posts = postRepository.findPostsFromMyFriends(memberId, pageable);
-
-        // 3. Entity -> DTO 변환 (Fetch Join 을 했기에 Post.getMember().getNickname()을 하더라도 추가로 쿼리문이 나가지않음)
-        List<PostListDto> list = posts.getContent().stream()
-                .map(PostListDto::fromEntity)
-                .toList();
-
-        return new PageImpl<>(list,pageable,posts.getTotalElements());
+        // 2. 내 친구인 Member 의 게시물만 가져오기 (목록용 projection 으로 바로 DTO 조회)
+        Page<PostListDto> posts = postRepository.findPostListFromMyFriends(memberId, pageable);
+        postViewCounter.mergeInto(posts.getContent());
+        return posts;
     }
 
     public String changeStatus(Long postId, PostStatusDto postStatusDto) {
@@ -14,10 +14,17 @@ import java.util.List;
 public class PostTagService {
 
     private final PostTagRepository postTagRepository;
+    private final PostRanking postRanking;
 
     public void createByList(List<PostTag> postTagList){
         postTagRepository.saveAll(postTagList);
+        postRanking.tagsAdded(postTagList);
     }
 
-    public void deleteAllById(Long postId){postTagRepository.deleteAllByPostId(postId);}
+    // 인기 태그 집계에서 빼야 하므로 지울 태그를 읽어서 삭제
+    public void deleteAllById(Long postId){
+        List<PostTag> postTags = postTagRepository.findAllByPostId(postId);
+        postTagRepository.deleteAll(postTags);
+        postRanking.tagsRemoved(postTags);
+    }
 }
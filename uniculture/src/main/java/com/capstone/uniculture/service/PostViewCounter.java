@@ -0,0 +1,115 @@
+package com.capstone.uniculture.service;
+
+import com.capstone.uniculture.dto.Post.Response.PostListDto;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 게시물 조회수 버퍼
+ * 게시물을 볼때마다 Post 를 UPDATE 하지 않고 게시물별 LongAdder 에 모아뒀다가, 주기적으로 JDBC 배치 UPDATE (view_count + n) 로 반영한다
+ * - 동시에 같은 게시물을 봐도 증가분이 사라지지 않는다 (DB 에서 더하므로 서버를 여러대 띄워도 됨)
+ * - 아직 반영되지 않은 증가분은 응답에 더해서 내려준다 (mergeInto, getPending)
+ * - 서버가 비정상 종료되면 마지막 flush 이후의 조회수는 사라진다 (정상 종료시에는 저장)
+ */
+@Slf4j
+@Component
+public class PostViewCounter {
+
+  private static final String INCREASE_VIEW_COUNT = "UPDATE post SET view_count = view_count + ? WHERE id = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchSize;
+
+  private final ConcurrentHashMap<Long, LongAdder> counts = new ConcurrentHashMap<>();
+  // 지난 flush 때 증가분이 없어서 counts 에서 뺀 카운터. 빼기 직전에 받아간 스레드의 증가분까지 다음 flush 때 한번 더 모은다
+  private List<Map.Entry<Long, LongAdder>> retired = new ArrayList<>();
+  // DB 에 반영중이거나 DB 오류로 다음 flush 때 다시 반영할 증가분
+  private volatile Map<Long, Long> flushing = Map.of();
+
+  public PostViewCounter(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${post.view-count.batch-size:500}") int batchSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.batchSize = batchSize;
+  }
+
+  public void increment(Long postId) {
+    counts.computeIfAbsent(postId, id -> new LongAdder()).increment();
+  }
+
+  // 아직 DB 에 반영되지 않은 조회수
+  public long getPending(Long postId) {
+    LongAdder count = counts.get(postId);
+    return (count == null ? 0 : count.sum()) + flushing.getOrDefault(postId, 0L);
+  }
+
+  // 목록 DTO 의 조회수에 반영되지 않은 조회수를 더함
+  public void mergeInto(Collection<PostListDto> posts) {
+    for (PostListDto post : posts) {
+      long pending = getPending(post.getPostId());
+      if(pending > 0) post.setViewCount((int) (post.getViewCount() + pending));
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${post.view-count.flush-interval-ms:5000}")
+  public void scheduledFlush() {
+    flush();
+  }
+
+  @PreDestroy
+  public void flushOnShutdown() {
+    flush();
+    if(!flushing.isEmpty()){
+      log.error("서버 종료전 저장하지 못한 게시물 조회수가 있습니다. ({}개 게시물)", flushing.size());
+    }
+  }
+
+  // 모인 증가분을 게시물별로 한번씩 UPDATE. 동시에 한 스레드만 flush 한다
+  public synchronized void flush() {
+    // 1. 지난번 실패분 + 빼둔 카운터에 늦게 들어온 증가분 + 이번 증가분
+    Map<Long, Long> deltas = new HashMap<>(flushing);
+    for (Map.Entry<Long, LongAdder> entry : retired) {
+      long count = entry.getValue().sumThenReset();
+      if(count > 0) deltas.merge(entry.getKey(), count, Long::sum);
+    }
+    List<Map.Entry<Long, LongAdder>> idle = new ArrayList<>();
+    counts.forEach((postId, count) -> {
+      long sum = count.sumThenReset();
+      if(sum > 0) deltas.merge(postId, sum, Long::sum);
+      else if(counts.remove(postId, count)) idle.add(Map.entry(postId, count)); // 한 주기 동안 조회가 없던 게시물은 정리
+    });
+    retired = idle;
+    if(deltas.isEmpty()) return;
+
+    // 2. 배치 UPDATE. 실패하면 다음 flush 때 다시 (그동안 getPending 에 계속 포함)
+    flushing = deltas;
+    List<Map.Entry<Long, Long>> batch = new ArrayList<>(deltas.entrySet());
+    try {
+      transactionTemplate.executeWithoutResult(status ->
+              jdbcTemplate.batchUpdate(INCREASE_VIEW_COUNT, batch, batchSize, (ps, delta) -> {
+                ps.setLong(1, delta.getValue());
+                ps.setLong(2, delta.getKey());
+              }));
+      flushing = Map.of();
+    } catch (DataAccessException e) {
+      log.error("게시물 조회수 저장 실패, 다음 flush 때 재시도합니다. ({}개 게시물)", batch.size(), e);
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package com.capstone.uniculture.service;
+
+import com.capstone.uniculture.dto.Message.ChatHistoryResponseDto;
+import com.capstone.uniculture.dto.Message.MessageResponseDto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 채팅방별 최근 메시지 캐시 (방마다 최근 N개만 보관하는 링 버퍼)
+ * 채팅방을 열면 대부분 첫 페이지만 보므로, 첫 페이지는 DB 대신 여기서 내려준다.
+ * - 전송/입장 메시지는 append 로 바로 들어오고, 처음 여는 방은 DB 에서 읽은 최근 페이지로 채운다(put)
+ * - 전체 크기가 max-bytes 를 넘으면 가장 오래 안쓴 방부터 비운다 (LRU)
+ * - 그 이전 페이지(before 커서)는 항상 DB 에서 조회
+ * 서버 메모리에만 있으므로 서버를 여러대 띄우는 relay 모드(chat.broker.mode=relay)에서는 enabled 설정과 상관없이 꺼진다
+ * (다른 서버로 보낸 메시지가 안들어옴)
+ */
+@Slf4j
+@Component
+public class RecentChatMessageCache {
+
+  // 메시지 한개의 고정 비용(객체 헤더, 필드, LocalDateTime, TreeMap 엔트리 등) 대략치
+  private static final long MESSAGE_OVERHEAD_BYTES = 160;
+
+  private final boolean enabled;
+  private final int messagesPerRoom;
+  private final long maxBytes;
+
+  // accessOrder = true 로 만들어서 가장 오래 안쓴 방이 맨 앞에 오게 함
+  private final LinkedHashMap<Long, RoomBuffer> rooms = new LinkedHashMap<>(256, 0.75f, true);
+  private long totalBytes;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  public RecentChatMessageCache(@Value("${chat.recent-cache.enabled:true}") boolean enabled,
+                                @Value("${chat.broker.mode:simple}") String brokerMode,
+                                @Value("${chat.recent-cache.messages-per-room:50}") int messagesPerRoom,
+                                @Value("${chat.recent-cache.max-bytes:67108864}") long maxBytes,
+                                MeterRegistry meterRegistry) {
+    this.enabled = enabled && !"relay".equalsIgnoreCase(brokerMode);
+    if(enabled && !this.enabled) log.info("relay 모드에서는 최근 메시지 캐시를 사용하지 않습니다 (chat.recent-cache.enabled 무시)");
+    this.messagesPerRoom = messagesPerRoom;
+    this.maxBytes = maxBytes;
+
+    FunctionCounter.builder("chat.recent.cache.hits", hits, AtomicLong::get).register(meterRegistry);
+    FunctionCounter.builder("chat.recent.cache.misses", misses, AtomicLong::get).register(meterRegistry);
+    Gauge.builder("chat.recent.cache.bytes", this, RecentChatMessageCache::getTotalBytes).register(meterRegistry);
+    Gauge.builder("chat.recent.cache.rooms", this, RecentChatMessageCache::getRoomCount).register(meterRegistry);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public int getMessagesPerRoom() {
+    return messagesPerRoom;
+  }
+
+  /**
+   * 가장 최근 페이지 조회. 캐시로 응답할 수 없으면 null
+   * (한번도 DB 에서 채운적 없는 방이거나, 요청한 크기만큼 메시지가 없고 더 오래된 메시지가 DB 에 있을때)
+   */
+  public synchronized ChatHistoryResponseDto findLatest(Long roomId, int size) {
+    if(!enabled) return null;
+    RoomBuffer buffer = rooms.get(roomId);
+    if(buffer == null || !buffer.loaded || size > messagesPerRoom
+            || (buffer.messages.size() < size && !buffer.complete)){
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    return ChatHistoryResponseDto.latestOf(new ArrayList<>(buffer.messages.values()), size, !buffer.complete);
+  }
+
+  /**
+   * DB 에서 읽은 최근 메시지들로 방을 채운다 (오래된 -> 최신 순)
+   * @param complete 이 목록보다 오래된 메시지가 DB 에 없으면 true
+   */
+  public synchronized void put(Long roomId, List<MessageResponseDto> messages, boolean complete) {
+    if(!enabled) return;
+    RoomBuffer buffer = rooms.computeIfAbsent(roomId, id -> new RoomBuffer());
+    // 읽는 사이에 append 된 메시지가 있을수 있으므로 덮어쓰지 않고 합친다
+    for (MessageResponseDto message : messages) {
+      add(buffer, message);
+    }
+    buffer.loaded = true;
+    buffer.complete = complete && !buffer.trimmed;
+    evictIfNeeded();
+  }
+
+  // 새로 전송된 메시지 추가. 아직 DB 에서 채우지 않은 방은 put 될때 합쳐지도록 메시지만 모아둔다
+  public synchronized void append(Long roomId, MessageResponseDto message) {
+    if(!enabled || message.getChatMessageId() == null) return;
+    RoomBuffer buffer = rooms.computeIfAbsent(roomId, id -> new RoomBuffer());
+    add(buffer, message);
+    if(buffer.trimmed) buffer.complete = false;
+    evictIfNeeded();
+  }
+
+  public synchronized void evict(Long roomId) {
+    RoomBuffer removed = rooms.remove(roomId);
+    if(removed != null) totalBytes -= removed.bytes;
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  public synchronized long getTotalBytes() {
+    return totalBytes;
+  }
+
+  public synchronized int getRoomCount() {
+    return rooms.size();
+  }
+
+  // id 순으로 넣고, 방마다 messagesPerRoom 개를 넘으면 가장 오래된 메시지부터 버린다
+  private void add(RoomBuffer buffer, MessageResponseDto message) {
+    MessageResponseDto previous = buffer.messages.put(message.getChatMessageId(), message);
+    long delta = estimateBytes(message) - (previous == null ? 0 : estimateBytes(previous));
+    buffer.bytes += delta;
+    totalBytes += delta;
+
+    while(buffer.messages.size() > messagesPerRoom){
+      MessageResponseDto oldest = buffer.messages.pollFirstEntry().getValue();
+      long freed = estimateBytes(oldest);
+      buffer.bytes -= freed;
+      totalBytes -= freed;
+      buffer.trimmed = true;
+    }
+  }
+
+  private void evictIfNeeded() {
+    Iterator<Map.Entry<Long, RoomBuffer>> iterator = rooms.entrySet().iterator();
+    while(totalBytes > maxBytes && iterator.hasNext()){
+      totalBytes -= iterator.next().getValue().bytes;
+      iterator.remove();
+    }
+  }
+
+  private static long estimateBytes(MessageResponseDto message) {
+    long chars = (message.getMessage() == null ? 0 : message.getMessage().length())
+            + (message.getSender() == null ? 0 : message.getSender().length());
+    return MESSAGE_OVERHEAD_BYTES + chars * 2;
+  }
+
+  private static class RoomBuffer {
+    private final TreeMap<Long, MessageResponseDto> messages = new TreeMap<>();
+    private long bytes;
+    private boolean loaded;   // DB 에서 최근 페이지를 한번 채웠는지
+    private boolean complete; // 이 방의 모든 메시지가 버퍼에 들어있는지 (더 오래된 메시지가 없는지)
+    private boolean trimmed;  // 개수 제한으로 오래된 메시지를 버린적이 있는지
+  }
+}
@@ -0,0 +1,125 @@
+package com.capstone.uniculture.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * 최근 windowHours 시간 동안의 키별 건수 (1시간 단위 버킷)
+ * - 버킷 = 시간 -> 키별 건수, 합계 = 윈도우 안의 버킷을 더한 키별 건수
+ * - 가장 오래된 버킷이 윈도우를 벗어나면 그 버킷만큼 합계에서 빼고 버린다 (호출될때마다 확인)
+ * - 상위 K 개는 합계를 한번 훑으며 크기 K 의 힙으로 고르고, 값이 바뀔때까지 결과를 재사용
+ * 1시간 단위이므로 윈도우 경계는 최대 1시간 짧아질 수 있다
+ */
+class SlidingWindowCounter<K> {
+
+  private final int windowHours;
+  private final Comparator<Map.Entry<K, Long>> ranking;
+
+  private final TreeMap<Long, Map<K, Long>> buckets = new TreeMap<>();
+  private final Map<K, Long> totals = new HashMap<>();
+  private List<K> top = List.of(); // 마지막으로 고른 상위 목록 (topSize 개까지 유효)
+  private int topSize = 0;
+
+  // 건수가 같으면 tieBreaker 순서
+  SlidingWindowCounter(int windowHours, Comparator<K> tieBreaker) {
+    this.windowHours = windowHours;
+    this.ranking = Map.Entry.<K, Long>comparingByValue().reversed()
+            .thenComparing(Map.Entry.comparingByKey(tieBreaker));
+  }
+
+  static long toHour(LocalDateTime time) {
+    return time.truncatedTo(ChronoUnit.HOURS).toEpochSecond(ZoneOffset.UTC) / 3600;
+  }
+
+  /**
+   * time 에 일어난 일을 delta 만큼 반영 (취소는 음수). 이미 윈도우를 벗어난 시간이면 무시
+   * 버킷 값은 0 밑으로 내려가지 않는다 (이 서버가 모르는 좋아요의 취소 등). 합계에는 버킷에 실제로 반영된 만큼만 더해서
+   * 합계 = 버킷의 합 이 항상 유지된다
+   */
+  synchronized void add(K key, LocalDateTime time, long delta, LocalDateTime now) {
+    long currentHour = toHour(now);
+    expire(currentHour);
+    long hour = toHour(time);
+    if(hour <= currentHour - windowHours) return;
+
+    Map<K, Long> bucket = buckets.get(hour);
+    long before = bucket == null ? 0 : bucket.getOrDefault(key, 0L);
+    long after = Math.max(0, before + delta);
+    if(after == before) return;
+
+    if(after > 0) buckets.computeIfAbsent(hour, h -> new HashMap<>()).put(key, after);
+    else {
+      bucket.remove(key);
+      if(bucket.isEmpty()) buckets.remove(hour);
+    }
+    totals.merge(key, after - before, (a, b) -> a + b <= 0 ? null : a + b);
+    invalidate();
+  }
+
+  // 키를 윈도우 전체에서 지움 (게시물 삭제)
+  synchronized void remove(K key) {
+    buckets.values().forEach(bucket -> bucket.remove(key));
+    if(totals.remove(key) != null) invalidate();
+  }
+
+  // DB 에서 다시 집계한 값으로 통째로 교체 (시간 -> 키별 건수)
+  synchronized void replace(Map<Long, Map<K, Long>> hourlyCounts, LocalDateTime now) {
+    buckets.clear();
+    totals.clear();
+    hourlyCounts.forEach((hour, counts) -> {
+      Map<K, Long> bucket = new HashMap<>(counts);
+      bucket.values().removeIf(count -> count <= 0);
+      if(bucket.isEmpty()) return;
+      buckets.put(hour, bucket);
+      bucket.forEach((key, count) -> totals.merge(key, count, Long::sum));
+    });
+    invalidate();
+    expire(toHour(now));
+  }
+
+  synchronized List<K> top(int k, LocalDateTime now) {
+    expire(toHour(now));
+    if(k > topSize){
+      top = selectTop(k);
+      topSize = k;
+    }
+    return top.size() > k ? top.subList(0, k) : top;
+  }
+
+  // 크기 k 의 힙 (가장 적은게 위) -> 꺼낸 순서를 뒤집으면 많은 순
+  private List<K> selectTop(int k) {
+    PriorityQueue<Map.Entry<K, Long>> heap = new PriorityQueue<>(k + 1, ranking.reversed());
+    for (Map.Entry<K, Long> entry : totals.entrySet()) {
+      heap.offer(Map.entry(entry.getKey(), entry.getValue()));
+      if(heap.size() > k) heap.poll();
+    }
+    List<K> result = new ArrayList<>(heap.size());
+    while (!heap.isEmpty()) result.add(heap.poll().getKey());
+    Collections.reverse(result);
+    return List.copyOf(result);
+  }
+
+  private void expire(long currentHour) {
+    boolean changed = false;
+    while (!buckets.isEmpty() && buckets.firstKey() <= currentHour - windowHours) {
+      buckets.pollFirstEntry().getValue().forEach((key, count) ->
+              totals.computeIfPresent(key, (k, total) -> total - count <= 0 ? null : total - count));
+      changed = true;
+    }
+    if(changed) invalidate();
+  }
+
+  private void invalidate() {
+    top = List.of();
+    topSize = 0;
+  }
+}
@@ -3,10 +3,11 @@ package com.capstone.uniculture.service;
 import com.capstone.uniculture.config.SecurityUtil;
 import com.capstone.uniculture.dto.Translate.TranslationResponseDto;
 import com.capstone.uniculture.dto.Translate.TranslationServerResponseDto;
-import com.capstone.uniculture.repository.MemberRepository;
 import com.deepl.api.DeepLException;
 import com.deepl.api.TextResult;
 import com.deepl.api.Translator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,21 +15,49 @@ import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
 @Service
 @Transactional
 public class TranslateService {
 
     @Value("${deepl.api.key}")
     private String deeplApiKey;
+    @Value("${deepl.api.url:https://api-free.deepl.com/v2/translate}")
+    private String deeplUrl;
     private final RestTemplate restTemplate;
-    private final MemberService memberService;
+    private final MemberLanguageCache memberLanguageCache;
+
+    // (대상 언어, 원문 해시) -> 번역 결과. accessOrder = true 로 가장 오래 안쓴 결과가 맨 앞
+    private final LinkedHashMap<CacheKey, TranslationResponseDto> cache;
+    private final Counter cacheHit;
+    private final Counter cacheMiss;
 
     @Autowired
-    public TranslateService(RestTemplateBuilder restTemplate, MemberService memberService) {
+    public TranslateService(RestTemplateBuilder restTemplate,
+                            MemberLanguageCache memberLanguageCache,
+                            MeterRegistry meterRegistry,
+                            @Value("${translate.cache.max-entries:10000}") int maxCacheEntries) {
         this.restTemplate = restTemplate.build();
-        this.memberService = memberService;
+        this.memberLanguageCache = memberLanguageCache;
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, TranslationResponseDto> eldest) {
+                return size() > maxCacheEntries;
+            }
+        };
+        this.cacheHit = Counter.builder("translate.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.cacheMiss = Counter.builder("translate.cache.requests").tag("result", "miss").register(meterRegistry);
     }
 
     public String translateText2(String text, String targetLanguage) {
@@ -49,22 +78,50 @@ public class TranslateService {
         }
     }
 
+    /**
+     * 번역 (결과 캐시 사용)
+     * 같은 문장("안녕하세요", "thank you" 등)은 언어별로 한번만 DeepL 을 호출하고 이후에는 캐시에서 돌려준다
+     * targetLanguage 가 없으면(게시물 번역, 채팅 번역) 현재 사용자의 언어로 번역
+     */
     public TranslationResponseDto translateText(String text, String targetLanguage) {
 
         if(targetLanguage == null){ // 만약 번역기를 사용하는게 아니고 게시물 번역, 채팅번역이라서 Target 언어가 안왔다면
-            targetLanguage = memberService.findMyLanguage(SecurityUtil.getCurrentMemberId());
+            targetLanguage = memberLanguageCache.getLanguage(SecurityUtil.getCurrentMemberId());
+        }
+        if(text == null || text.isBlank()){
+            throw new IllegalArgumentException("번역할 내용을 입력해주세요.");
         }
 
-        System.out.println("targetLanguage = " + targetLanguage);
+        CacheKey key = new CacheKey(targetLanguage.toUpperCase(Locale.ROOT), hash(text));
+        synchronized (cache) {
+            TranslationResponseDto cached = cache.get(key);
+            if(cached != null){
+                cacheHit.increment();
+                return cached;
+            }
+        }
+        cacheMiss.increment();
+
+        TranslationResponseDto result = requestTranslation(text, key.targetLanguage());
+        synchronized (cache) {
+            cache.put(key, result);
+        }
+        return result;
+    }
 
+    // DeepL 호출 (form 인코딩이므로 text 에 & 나 = 가 있어도 그대로 전달됨)
+    private TranslationResponseDto requestTranslation(String text, String targetLanguage) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
 
-        String requestBody = "auth_key=" + deeplApiKey + "&text=" + text + "&target_lang=" + targetLanguage;
+        MultiValueMap<String, String> requestBody = new LinkedMultiValueMap<>();
+        requestBody.add("auth_key", deeplApiKey);
+        requestBody.add("text", text);
+        requestBody.add("target_lang", targetLanguage);
 
-        HttpEntity<String> requestEntity = new HttpEntity<>(requestBody, headers);
+        HttpEntity<MultiValueMap<String, String>> requestEntity = new HttpEntity<>(requestBody, headers);
 
-        ResponseEntity<TranslationServerResponseDto> responseEntity = restTemplate.exchange("https://api-free.deepl.com/v2/translate", HttpMethod.POST, requestEntity, TranslationServerResponseDto.class);
+        ResponseEntity<TranslationServerResponseDto> responseEntity = restTemplate.exchange(deeplUrl, HttpMethod.POST, requestEntity, TranslationServerResponseDto.class);
 
         if(responseEntity.getStatusCode() == HttpStatus.OK) {
             TranslationServerResponseDto.TranslationDto translationDto = responseEntity.getBody().getTranslations().get(0);
@@ -76,4 +133,17 @@ public class TranslateService {
         }
     }
 
+    // 원문 대신 SHA-256 값을 키로 써서 긴 문장도 키 크기는 일정하게
+    private static String hash(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record CacheKey(String targetLanguage, String textHash) {
+    }
+
 }
@@ -0,0 +1,9 @@
+-- [user-001] 채팅 내역 커서 페이징 (chat_room_id = ? AND id < ?) 용 인덱스
+-- 예전 chat_message(chat_room_id) 단일 컬럼 인덱스를 (chat_room_id, id) 복합 인덱스로 바꾼다
+-- 예전 인덱스(이름은 Hibernate 가 @Index(columnList = "chatRoom_id") 로 만든 것)는 chat_room FK 가 쓰고 있으므로
+-- FK 를 잠시 지웠다가 다시 만든다 (다시 만든 FK 는 새 복합 인덱스를 사용)
+
+CREATE INDEX IF NOT EXISTS idx_chat_message_room_id ON chat_message (chat_room_id, id);
+ALTER TABLE chat_message DROP CONSTRAINT IF EXISTS FKJ52YAP2XRM9U0721DCT0TJOR9;
+DROP INDEX IF EXISTS IDX9U25BMPKRMH55LSNYQ2O8BMM8;
+ALTER TABLE chat_message ADD CONSTRAINT FKJ52YAP2XRM9U0721DCT0TJOR9 FOREIGN KEY (chat_room_id) REFERENCES chat_room (id);
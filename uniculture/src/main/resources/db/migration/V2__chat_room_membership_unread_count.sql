@@ -0,0 +1,16 @@
+-- [user-005] 채팅방별 안읽은 메시지 수 (ChatRoomMembership.unreadCount)와 (채팅방, 멤버) 유니크 제약
+-- 이미 있는 참여정보의 안읽은 수는 예전 is_read 값으로 채운다 (참여정보가 없는 1:1 채팅방은 V5 에서 채움)
+
+ALTER TABLE chat_room_membership ADD COLUMN IF NOT EXISTS unread_count BIGINT DEFAULT 0;
+
+UPDATE chat_room_membership m
+   SET unread_count = (SELECT COUNT(*) FROM chat_message c
+                        WHERE c.chat_room_id = m.chat_room_id AND c.to_member_id = m.member_id AND c.is_read = FALSE);
+
+-- 같은 (채팅방, 멤버) 참여정보가 여러개면 가장 먼저 만들어진 것만 남긴다
+DELETE FROM chat_room_membership m
+ WHERE EXISTS (SELECT 1 FROM chat_room_membership o
+                WHERE o.chat_room_id = m.chat_room_id AND o.member_id = m.member_id AND o.id < m.id);
+
+ALTER TABLE chat_room_membership ADD CONSTRAINT IF NOT EXISTS uk_chat_room_membership_room_member
+    UNIQUE (chat_room_id, member_id);
@@ -0,0 +1,71 @@
+-- [user-010] 1:1 채팅방은 (member1_id < member2_id) 순서로만 저장하고, 두 사람당 방 하나 (uk_chat_room_member_pair)
+-- 1. 두 멤버를 (작은 id, 큰 id) 로 임시 컬럼에 적어두고
+-- 2. 같은 두 사람의 방이 여러개면 (순서가 반대인 방 포함) 가장 먼저 만들어진 방으로 메시지/참여정보를 옮기고 나머지 방은 지운다
+-- 3. 임시 컬럼 값으로 member1_id, member2_id 를 다시 쓴다 (한 컬럼을 다른 컬럼 값으로 바꾸는 중간 상태가 없음)
+-- 4. 유니크 제약 추가
+
+ALTER TABLE chat_room ADD COLUMN IF NOT EXISTS min_member_id BIGINT;
+ALTER TABLE chat_room ADD COLUMN IF NOT EXISTS max_member_id BIGINT;
+
+UPDATE chat_room
+   SET min_member_id = LEAST(member1_id, member2_id),
+       max_member_id = GREATEST(member1_id, member2_id)
+ WHERE member1_id IS NOT NULL AND member2_id IS NOT NULL;
+
+-- 합쳐질 방 -> 남길 방
+CREATE TABLE chat_room_merge AS
+SELECT r.id AS room_id, k.keep_id
+  FROM chat_room r
+  JOIN (SELECT min_member_id, max_member_id, MIN(id) AS keep_id
+          FROM chat_room
+         WHERE min_member_id IS NOT NULL
+         GROUP BY min_member_id, max_member_id
+        HAVING COUNT(*) > 1) k
+    ON k.min_member_id = r.min_member_id AND k.max_member_id = r.max_member_id
+ WHERE r.id <> k.keep_id;
+
+UPDATE chat_message c
+   SET chat_room_id = (SELECT m.keep_id FROM chat_room_merge m WHERE m.room_id = c.chat_room_id)
+ WHERE c.chat_room_id IN (SELECT room_id FROM chat_room_merge);
+
+-- 같은 멤버의 참여정보가 남길 방이나 먼저 합쳐지는 방에 이미 있으면 지우고, 나머지는 남길 방으로 옮긴다
+DELETE FROM chat_room_membership d
+ WHERE d.chat_room_id IN (SELECT room_id FROM chat_room_merge)
+   AND EXISTS (SELECT 1 FROM chat_room_membership o, chat_room_merge dm
+                WHERE dm.room_id = d.chat_room_id
+                  AND o.member_id = d.member_id
+                  AND o.chat_room_id < d.chat_room_id
+                  AND (o.chat_room_id = dm.keep_id
+                       OR o.chat_room_id IN (SELECT om.room_id FROM chat_room_merge om WHERE om.keep_id = dm.keep_id)));
+
+UPDATE chat_room_membership crm
+   SET chat_room_id = (SELECT m.keep_id FROM chat_room_merge m WHERE m.room_id = crm.chat_room_id)
+ WHERE crm.chat_room_id IN (SELECT room_id FROM chat_room_merge);
+
+-- 남길 방의 안읽은 메시지 수, 마지막 메시지를 옮겨온 메시지까지 포함해서 다시 계산
+UPDATE chat_room_membership crm
+   SET unread_count = (SELECT COUNT(*) FROM chat_message c
+                        WHERE c.chat_room_id = crm.chat_room_id AND c.to_member_id = crm.member_id AND c.is_read = FALSE)
+ WHERE crm.chat_room_id IN (SELECT keep_id FROM chat_room_merge);
+
+UPDATE chat_room r
+   SET latest_message = (SELECT c.message FROM chat_message c WHERE c.chat_room_id = r.id ORDER BY c.id DESC LIMIT 1),
+       latest_message_time = (SELECT MAX(c.created_date) FROM chat_message c WHERE c.chat_room_id = r.id)
+ WHERE r.id IN (SELECT keep_id FROM chat_room_merge)
+   AND EXISTS (SELECT 1 FROM chat_message c WHERE c.chat_room_id = r.id);
+
+DELETE FROM chat_room WHERE id IN (SELECT room_id FROM chat_room_merge);
+DROP TABLE chat_room_merge;
+
+-- 역순으로 저장된 방 정렬
+ALTER TABLE chat_room DROP CONSTRAINT IF EXISTS uk_chat_room_member_pair;
+
+UPDATE chat_room
+   SET member1_id = min_member_id,
+       member2_id = max_member_id
+ WHERE member1_id > member2_id;
+
+ALTER TABLE chat_room DROP COLUMN min_member_id;
+ALTER TABLE chat_room DROP COLUMN max_member_id;
+
+ALTER TABLE chat_room ADD CONSTRAINT uk_chat_room_member_pair UNIQUE (member1_id, member2_id);
@@ -0,0 +1,11 @@
+-- [user-011] 읽음 위치 (ChatRoomMembership.lastReadMessageId). 이 id 까지의 메시지는 읽음
+-- 이미 있는 참여정보는 예전 is_read 값으로 채운다 : 첫번째 안읽은 메시지 직전, 안읽은 메시지가 없으면 채팅방의 마지막 메시지
+
+ALTER TABLE chat_room_membership ADD COLUMN IF NOT EXISTS last_read_message_id BIGINT DEFAULT 0;
+
+UPDATE chat_room_membership m
+   SET last_read_message_id = COALESCE(
+           (SELECT MIN(c.id) - 1 FROM chat_message c
+             WHERE c.chat_room_id = m.chat_room_id AND c.to_member_id = m.member_id AND c.is_read = FALSE),
+           (SELECT MAX(c.id) FROM chat_message c WHERE c.chat_room_id = m.chat_room_id),
+           0);
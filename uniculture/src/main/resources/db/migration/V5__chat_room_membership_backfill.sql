@@ -0,0 +1,18 @@
+-- [user-005] 예전에 만들어진 1:1 채팅방은 ChatRoomMembership 이 없으므로 한번만 채워준다 (서버 시작시 실행하지 않음)
+-- 안읽은 메시지 수, 읽음 위치는 V2, V4 와 같이 예전 is_read 값으로 계산
+-- 업그레이드할때 한번만 실행할 것 - 이후에는 채팅방을 나가면 참여정보만 지워지므로 다시 실행하면 나간 사람이 되돌아온다
+
+INSERT INTO chat_room_membership (chat_room_id, member_id, unread_count, last_read_message_id, created_date, modified_date)
+SELECT p.room_id, p.member_id,
+       (SELECT COUNT(*) FROM chat_message c
+         WHERE c.chat_room_id = p.room_id AND c.to_member_id = p.member_id AND c.is_read = FALSE),
+       COALESCE((SELECT MIN(c.id) - 1 FROM chat_message c
+                  WHERE c.chat_room_id = p.room_id AND c.to_member_id = p.member_id AND c.is_read = FALSE),
+                (SELECT MAX(c.id) FROM chat_message c WHERE c.chat_room_id = p.room_id),
+                0),
+       CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+  FROM (SELECT r.id AS room_id, r.member1_id AS member_id FROM chat_room r
+        UNION ALL
+        SELECT r.id AS room_id, r.member2_id AS member_id FROM chat_room r) p
+ WHERE p.member_id IS NOT NULL
+   AND NOT EXISTS (SELECT 1 FROM chat_room_membership m WHERE m.chat_room_id = p.room_id AND m.member_id = p.member_id);
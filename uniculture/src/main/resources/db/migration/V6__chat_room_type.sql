@@ -0,0 +1,9 @@
+-- [user-012] 단체 채팅방 : 채팅방 종류 컬럼 추가, 단체 채팅방은 member1/member2 가 없으므로 NULL 허용
+-- 예전 채팅방은 모두 1:1 채팅방(DUO)
+
+ALTER TABLE chat_room ADD COLUMN IF NOT EXISTS type VARCHAR(255) DEFAULT 'DUO';
+UPDATE chat_room SET type = 'DUO' WHERE type IS NULL;
+ALTER TABLE chat_room ADD CONSTRAINT IF NOT EXISTS ck_chat_room_type CHECK (type IN ('DUO', 'MULTI'));
+
+ALTER TABLE chat_room ALTER COLUMN member1_id SET NULL;
+ALTER TABLE chat_room ALTER COLUMN member2_id SET NULL;
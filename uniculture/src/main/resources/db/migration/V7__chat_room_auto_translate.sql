@@ -0,0 +1,3 @@
+-- [user-015] 채팅방 자동 번역 모드 (기본값 꺼짐)
+
+ALTER TABLE chat_room ADD COLUMN IF NOT EXISTS auto_translate BOOLEAN DEFAULT FALSE NOT NULL;
@@ -0,0 +1,3 @@
+-- [user-016] 오래된 메시지 보관 작업이 created_date < ? 로 찾을 수 있도록 인덱스 추가
+
+CREATE INDEX IF NOT EXISTS idx_chat_message_created_date ON chat_message (created_date);
@@ -0,0 +1,7 @@
+-- [user-021] 메인창 게시물 목록(최신순, (작성시간, id) 커서) 용 복합 인덱스. 필터(카테고리/타입/상태) 조합별
+-- PostService.findFeed 는 들어온 필터만 WHERE 에 넣으므로, 필터 컬럼 = ? 로 앞부분을 고정하고 작성시간 역순으로 읽는다
+
+CREATE INDEX IF NOT EXISTS idx_post_feed ON post (created_date, id);
+CREATE INDEX IF NOT EXISTS idx_post_feed_category ON post (post_category, created_date, id);
+CREATE INDEX IF NOT EXISTS idx_post_feed_category_type ON post (post_category, posttype, created_date, id);
+CREATE INDEX IF NOT EXISTS idx_post_feed_category_status ON post (post_category, post_status, created_date, id);